@@ -41,8 +41,8 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.ViewModelProvider;
 import edu.cnm.deepdive.slidingtiles.R;
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
 import edu.cnm.deepdive.slidingtiles.model.Move;
-import edu.cnm.deepdive.slidingtiles.model.Tile;
 import edu.cnm.deepdive.slidingtiles.view.PuzzleAdapter;
 import edu.cnm.deepdive.slidingtiles.viewmodel.PlayViewModel;
 import java.util.LinkedList;
@@ -54,7 +54,7 @@ import java.util.List;
 public class PlayFragment extends Fragment
     implements AdapterView.OnItemClickListener {
 
-  private Tile[][] tiles;
+  private Arrangement tiles;
   private boolean solved;
   private int size;
   private boolean animateSlides;
@@ -315,11 +315,11 @@ public class PlayFragment extends Fragment
   private void loadPuzzle() {
     if (tiles != null && image != null) {
       imageUnderlay.setImageDrawable(image);
-      size = tiles.length;
+      size = tiles.getSize();
       numTiles.setText(String.valueOf(size * size - 1));
       //noinspection ConstantConditions
       adapter = new PuzzleAdapter(getContext(), tiles, image, showOverlay.isChecked());
-      tileGrid.setNumColumns(tiles.length);
+      tileGrid.setNumColumns(size);
       tileGrid.setAdapter(adapter);
       progressDisplay.setMax(size * size - 1);
       checkTileGridDisplay();
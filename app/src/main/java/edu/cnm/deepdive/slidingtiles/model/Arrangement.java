@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+/**
+ * Read-only view of a square arrangement of tiles. Implementations provide indexed access to the
+ * tile numbers in row-major order without copying, so that consumers (e.g. metrics and adapters)
+ * can read an arrangement without allocating.
+ */
+public interface Arrangement {
+
+  /**
+   * Returns the height and width of the arrangement.
+   */
+  int getSize();
+
+  /**
+   * Returns the number of the tile at the specified row-major position; the empty space is
+   * represented by <code>size<sup>2</sup> - 1</code> (i.e. the number corresponding to its home
+   * position, in the lower-right corner).
+   *
+   * @param position cell index ({@code row * size + col}).
+   * @return tile number.
+   */
+  int getTileNumber(int position);
+
+  /**
+   * Returns the canonical {@link Tile} instance at the specified location, or {@code null} if the
+   * location is the empty space.
+   *
+   * @param row vertical coordinate.
+   * @param col horizontal coordinate.
+   * @return tile at the specified location.
+   */
+  default Tile getTile(int row, int col) {
+    int size = getSize();
+    int number = getTileNumber(row * size + col);
+    return (number < size * size - 1) ? Tile.valueOf(number) : null;
+  }
+
+}
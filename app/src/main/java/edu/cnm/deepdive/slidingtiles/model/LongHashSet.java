@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive {@code long} values, using linear probing in a
+ * power-of-two table. Unlike a {@code HashSet<Long>}, adding a value allocates nothing (other than
+ * when the table grows), which makes this suitable for recording arrangement keys or packed states
+ * on every move or search node.
+ */
+public class LongHashSet {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int MAX_LOAD_PERCENT = 60;
+  private static final long EMPTY = 0;
+
+  private long[] table;
+  private int mask;
+  private int size;
+  private boolean containsEmpty;
+
+  /**
+   * Initializes an empty set with a default initial capacity.
+   */
+  public LongHashSet() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Initializes an empty set with room for at least the specified number of values before the
+   * table must grow.
+   *
+   * @param expected expected number of values.
+   */
+  public LongHashSet(int expected) {
+    int capacity = Integer.highestOneBit(
+        Math.max(DEFAULT_CAPACITY, (int) (expected * 100L / MAX_LOAD_PERCENT)) - 1) << 1;
+    table = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Initializes this set as a copy of the specified set.
+   *
+   * @param other set from which this instance will be initialized.
+   */
+  public LongHashSet(LongHashSet other) {
+    table = other.table.clone();
+    mask = other.mask;
+    size = other.size;
+    containsEmpty = other.containsEmpty;
+  }
+
+  /**
+   * Adds the specified value to this set, if not already present.
+   *
+   * @param value value to add.
+   * @return {@code true} if the value was added; {@code false} if it was already present.
+   */
+  public boolean add(long value) {
+    if (value == EMPTY) {
+      boolean added = !containsEmpty;
+      containsEmpty = true;
+      if (added) {
+        size++;
+      }
+      return added;
+    }
+    int index = indexOf(value);
+    if (table[index] == value) {
+      return false;
+    }
+    table[index] = value;
+    if (++size * 100L > (long) table.length * MAX_LOAD_PERCENT) {
+      grow();
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if the specified value is present in this set.
+   *
+   * @param value value to look for.
+   */
+  public boolean contains(long value) {
+    return (value == EMPTY) ? containsEmpty : table[indexOf(value)] == value;
+  }
+
+  /**
+   * Returns the number of values in this set.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if this set contains no values.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all values from this set, retaining the current table capacity.
+   */
+  public void clear() {
+    Arrays.fill(table, EMPTY);
+    size = 0;
+    containsEmpty = false;
+  }
+
+  /**
+   * Returns an estimate of the memory (in bytes) occupied by the table of this set.
+   */
+  public long getFootprint() {
+    return (long) table.length * Long.BYTES;
+  }
+
+  /**
+   * Returns the values in this set, in no particular order.
+   */
+  public long[] toArray() {
+    long[] values = new long[size];
+    int count = 0;
+    if (containsEmpty) {
+      values[count++] = EMPTY;
+    }
+    for (long value : table) {
+      if (value != EMPTY) {
+        values[count++] = value;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Spreads the bits of a {@code long} value, so that keys differing only in high-order bits (as
+   * packed arrangements often do) are distributed throughout the table.
+   *
+   * @param value value to mix.
+   * @return mixed value.
+   */
+  static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    return value ^ (value >>> 33);
+  }
+
+  private int indexOf(long value) {
+    int index = (int) mix(value) & mask;
+    while (table[index] != EMPTY && table[index] != value) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private void grow() {
+    long[] old = table;
+    table = new long[old.length << 1];
+    mask = table.length - 1;
+    for (long value : old) {
+      if (value != EMPTY) {
+        table[indexOf(value)] = value;
+      }
+    }
+  }
+
+}
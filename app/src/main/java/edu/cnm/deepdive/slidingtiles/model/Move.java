@@ -16,15 +16,25 @@
 package edu.cnm.deepdive.slidingtiles.model;
 
 /**
- * Encapsulates a single tile move from one location to an adjacent location, including the hash
- * value of the pre-move arrangement of tiles. The latter value may be used by solver/hint features,
+ * Encapsulates a single tile move from one location to an adjacent location, including the 64-bit
+ * key of the pre-move arrangement of tiles. The latter value may be used by solver/hint features,
  * to recognize moves that result in a previously reached arrangement.
+ * <p>
+ * Where large numbers of moves must be recorded or processed (e.g. by solvers, replays, and logs),
+ * a move may instead be represented as a packed {@code int}, holding the row-major starting and
+ * ending positions of the tile (see {@link #pack(int, int)}, {@link #from(int)}, and {@link
+ * #to(int)}); {@code Move} instances may then be created from packed moves on demand, with {@link
+ * #unpack(int, int, long)}.
+ * </p>
  */
 public class Move {
 
+  private static final int POSITION_BITS = 8;
+  private static final int POSITION_MASK = (1 << POSITION_BITS) - 1;
+
   private final int fromRow;
   private final int fromCol;
-  private final int fromHashCode;
+  private final long fromKey;
   private final int toRow;
   private final int toCol;
 
@@ -33,19 +43,63 @@ public class Move {
    *
    * @param fromRow tile's starting location row.
    * @param fromCol tile's starting location column.
-   * @param fromHashCode pre-move arrangement hash value.
+   * @param fromKey pre-move arrangement key.
    * @param toRow tile's ending location row.
    * @param toCol tile's ending location column.
    */
-  protected Move(int fromRow, int fromCol, int fromHashCode,
+  protected Move(int fromRow, int fromCol, long fromKey,
       int toRow, int toCol) {
     this.fromRow = fromRow;
     this.fromCol = fromCol;
-    this.fromHashCode = fromHashCode;
+    this.fromKey = fromKey;
     this.toRow = toRow;
     this.toCol = toCol;
   }
 
+  /**
+   * Packs a single-tile move, specified by row-major starting and ending positions of the tile,
+   * into an {@code int}.
+   *
+   * @param from tile's starting position ({@code row * size + col}).
+   * @param to   tile's ending position.
+   * @return packed move.
+   */
+  public static int pack(int from, int to) {
+    return (from << POSITION_BITS) | to;
+  }
+
+  /**
+   * Returns the tile's starting position from a packed move.
+   *
+   * @param move packed move.
+   */
+  public static int from(int move) {
+    return move >>> POSITION_BITS;
+  }
+
+  /**
+   * Returns the tile's ending position from a packed move.
+   *
+   * @param move packed move.
+   */
+  public static int to(int move) {
+    return move & POSITION_MASK;
+  }
+
+  /**
+   * Creates and returns a {@code Move} instance from a packed move.
+   *
+   * @param size    height and width of puzzle.
+   * @param move    packed move.
+   * @param fromKey pre-move arrangement key.
+   * @return {@code Move} view of packed move.
+   */
+  public static Move unpack(int size, int move, long fromKey) {
+    int from = from(move);
+    int to = to(move);
+    return new Move(from / size, from % size, fromKey, to / size, to % size);
+  }
+
   /**
    * Returns the row of the tile's starting location.
    */
@@ -61,10 +115,18 @@ public class Move {
   }
 
   /**
-   * Returns the hash value of the pre-move arrangement of tiles.
+   * Returns the hash value of the pre-move arrangement of tiles, folded to 32 bits from {@link
+   * #getFromKey()}.
    */
   public int getFromHashCode() {
-    return fromHashCode;
+    return Zobrist.fold(fromKey);
+  }
+
+  /**
+   * Returns the 64-bit {@link Zobrist} key of the pre-move arrangement of tiles.
+   */
+  public long getFromKey() {
+    return fromKey;
   }
 
   /**
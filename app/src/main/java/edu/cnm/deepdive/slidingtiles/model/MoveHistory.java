@@ -0,0 +1,310 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.Arrays;
+
+/**
+ * Records the single-tile moves made in a {@link Puzzle}, along with the keys of the arrangements
+ * from which those moves were made. Moves are stored as packed {@code int} values (see {@link
+ * Move#pack(int, int)}) in a growable array, and arrangement keys are stored both in a parallel
+ * {@code long} array and in a {@link LongHashSet}, so that recording a move, counting moves, and
+ * checking whether an arrangement has been visited are all constant-time operations that produce no
+ * garbage.
+ * <p>
+ * A history may be forked (see {@link #fork()}) without copying any recorded moves: the current
+ * segment of moves is frozen, and the list of frozen segments is shared by the original and the
+ * fork, each of which continues recording into its own new segment. The cost of a fork, and of a
+ * visited-arrangement query, is therefore proportional to the number of forks in the history's
+ * lineage, but independent of the number of moves recorded.
+ * </p>
+ * <p>
+ * A history may optionally be limited in capacity. When a limited history is full, recording a move
+ * discards the oldest retained move, so that exactly {@link #getLimit()} moves are retained. Frozen
+ * segments whose moves have all been discarded are released; discarded moves in the current segment
+ * are compacted away (in amortized constant time) when the segment's arrays fill up. Until then, a
+ * visited-arrangement query that matches a partially discarded segment scans that segment's
+ * retained keys. The total move count is unaffected by such trimming.
+ * </p>
+ */
+public class MoveHistory {
+
+  /** Capacity limit value indicating that the history is unbounded. */
+  public static final int UNLIMITED = 0;
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final Segment[] NO_SEGMENTS = new Segment[0];
+
+  private final int limit;
+  private Segment[] shared; // Oldest first; never modified in place, so may be shared by forks.
+  private int first; // Index (in the full history) of the oldest retained move.
+  private int base; // Index (in the full history) of the first move in the current segment.
+  private int[] moves;
+  private long[] keys;
+  private LongHashSet arrangements;
+  private int length;
+  private int count;
+
+  /**
+   * Initializes an empty, unbounded history.
+   */
+  public MoveHistory() {
+    this(UNLIMITED);
+  }
+
+  /**
+   * Initializes an empty history, retaining at most the specified number of moves.
+   *
+   * @param limit maximum number of retained moves (at least 2), or {@link #UNLIMITED}.
+   */
+  public MoveHistory(int limit) {
+    if (limit != UNLIMITED && limit < 2) {
+      throw new IllegalArgumentException();
+    }
+    this.limit = limit;
+    shared = NO_SEGMENTS;
+    startSegment();
+  }
+
+  private MoveHistory(MoveHistory other) {
+    limit = other.limit;
+    shared = other.shared;
+    first = other.first;
+    count = other.count;
+    startSegment();
+  }
+
+  /**
+   * Creates and returns a history containing the same moves as this instance, which may then be
+   * extended independently of this instance. The moves recorded so far are shared (not copied)
+   * between this instance and the fork.
+   *
+   * @return forked history.
+   */
+  public MoveHistory fork() {
+    freeze();
+    return new MoveHistory(this);
+  }
+
+  /**
+   * Records a move.
+   *
+   * @param move    packed move.
+   * @param fromKey key of the arrangement from which the move was made.
+   */
+  public void add(int move, long fromKey) {
+    if (limit != UNLIMITED && getRetained() >= limit) {
+      trim();
+    }
+    if (length == moves.length) {
+      int discarded = first - base;
+      if (discarded > 0 && discarded >= length / 2) {
+        compact();
+      } else {
+        int capacity = (limit == UNLIMITED) ? length << 1 : Math.min(length << 1, limit << 1);
+        moves = Arrays.copyOf(moves, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+      }
+    }
+    moves[length] = move;
+    keys[length] = fromKey;
+    length++;
+    count++;
+    arrangements.add(fromKey);
+  }
+
+  /**
+   * Returns the total number of moves recorded since this history was created or last cleared,
+   * including any discarded because of the capacity limit.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the number of moves currently retained.
+   */
+  public int getRetained() {
+    return count - first;
+  }
+
+  /**
+   * Returns the retained packed move at the specified index, where 0 is the oldest retained move.
+   *
+   * @param index index of move, from 0 to {@link #getRetained()} - 1.
+   * @return packed move.
+   */
+  public int getMove(int index) {
+    int position = positionOf(index);
+    if (position >= base) {
+      return moves[position - base];
+    }
+    Segment segment = segmentOf(position);
+    return segment.moves[position - segment.start];
+  }
+
+  /**
+   * Returns the key of the arrangement from which the retained move at the specified index was
+   * made.
+   *
+   * @param index index of move, from 0 to {@link #getRetained()} - 1.
+   * @return arrangement key.
+   */
+  public long getFromKey(int index) {
+    int position = positionOf(index);
+    if (position >= base) {
+      return keys[position - base];
+    }
+    Segment segment = segmentOf(position);
+    return segment.keys[position - segment.start];
+  }
+
+  /**
+   * Returns {@code true} if a move was made from the arrangement with the specified key, among the
+   * retained moves.
+   *
+   * @param key arrangement key.
+   */
+  public boolean contains(long key) {
+    if (arrangements.contains(key) && isRetained(key, keys, base, length)) {
+      return true;
+    }
+    for (int i = shared.length - 1; i >= 0; i--) {
+      Segment segment = shared[i];
+      if (segment.arrangements.contains(key)
+          && isRetained(key, segment.keys, segment.start, segment.length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the maximum number of retained moves, or {@link #UNLIMITED}.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Discards all recorded moves and arrangements, and resets the total move count to 0.
+   */
+  public void clear() {
+    shared = NO_SEGMENTS;
+    first = 0;
+    base = 0;
+    length = 0;
+    count = 0;
+    arrangements.clear();
+  }
+
+  private void startSegment() {
+    int capacity = (limit == UNLIMITED) ? DEFAULT_CAPACITY : Math.min(limit, DEFAULT_CAPACITY);
+    moves = new int[capacity];
+    keys = new long[capacity];
+    arrangements = new LongHashSet(capacity);
+    base = count;
+    length = 0;
+  }
+
+  private void freeze() {
+    if (count > Math.max(first, base)) {
+      Segment[] segments = Arrays.copyOf(shared, shared.length + 1);
+      segments[shared.length] = new Segment(base, moves, keys, length, arrangements);
+      shared = segments;
+      startSegment();
+    }
+  }
+
+  private void trim() {
+    first++;
+    int released = 0;
+    while (released < shared.length && shared[released].end <= first) {
+      released++;
+    }
+    if (released > 0) {
+      shared = (released < shared.length)
+          ? Arrays.copyOfRange(shared, released, shared.length)
+          : NO_SEGMENTS;
+    }
+  }
+
+  private void compact() {
+    int discard = first - base;
+    length -= discard;
+    base = first;
+    System.arraycopy(moves, discard, moves, 0, length);
+    System.arraycopy(keys, discard, keys, 0, length);
+    arrangements.clear();
+    for (int i = 0; i < length; i++) {
+      arrangements.add(keys[i]);
+    }
+  }
+
+  private boolean isRetained(long key, long[] keys, int start, int length) {
+    if (start >= first) {
+      return true;
+    }
+    for (int i = first - start; i < length; i++) {
+      if (keys[i] == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int positionOf(int index) {
+    if (index < 0 || index >= count - first) {
+      throw new IndexOutOfBoundsException();
+    }
+    return first + index;
+  }
+
+  private Segment segmentOf(int position) {
+    int low = 0;
+    int high = shared.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (shared[middle].start <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return shared[low];
+  }
+
+  private static class Segment {
+
+    private final int start;
+    private final int end;
+    private final int[] moves;
+    private final long[] keys;
+    private final int length;
+    private final LongHashSet arrangements;
+
+    private Segment(int start, int[] moves, long[] keys, int length, LongHashSet arrangements) {
+      this.start = start;
+      this.moves = moves;
+      this.keys = keys;
+      this.length = length;
+      this.arrangements = arrangements;
+      end = start + length;
+    }
+
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed tables of orthogonally adjacent cells, for each supported puzzle size. Since a
+ * single-tile move always slides a tile adjacent to the empty space into that space, the neighbors
+ * of the empty space's position are exactly the positions of the tiles that may legally be moved.
+ * The tables are computed once, and shared; callers must not modify the arrays returned.
+ */
+public final class Neighbors {
+
+  private static final int[][][] TABLES = new int[PackedState.MAX_SIZE + 1][][];
+
+  static {
+    for (int size = PackedState.MIN_SIZE; size <= PackedState.MAX_SIZE; size++) {
+      int[][] table = new int[size * size][];
+      for (int position = 0; position < table.length; position++) {
+        int row = position / size;
+        int col = position % size;
+        int[] buffer = new int[4];
+        int count = 0;
+        if (row > 0) {
+          buffer[count++] = position - size;
+        }
+        if (col > 0) {
+          buffer[count++] = position - 1;
+        }
+        if (col < size - 1) {
+          buffer[count++] = position + 1;
+        }
+        if (row < size - 1) {
+          buffer[count++] = position + size;
+        }
+        table[position] = Arrays.copyOf(buffer, count);
+      }
+      TABLES[size] = table;
+    }
+  }
+
+  private Neighbors() {
+  }
+
+  /**
+   * Returns the neighbor table for the specified size, indexed by row-major position. Each element
+   * of the table is an array of the positions (in ascending order) adjacent to that position.
+   *
+   * @param size height and width of puzzle.
+   * @return shared neighbor table; must not be modified.
+   */
+  public static int[][] of(int size) {
+    return TABLES[size];
+  }
+
+  /**
+   * Fills {@code buffer} with the positions of the tiles that may be moved into the empty space,
+   * and returns the number of such positions. No allocation is performed.
+   *
+   * @param size   height and width of puzzle.
+   * @param blank  position of the empty space.
+   * @param buffer destination for tile positions; must have room for at least 4 elements.
+   * @return number of legal moves.
+   */
+  public static int fill(int size, int blank, int[] buffer) {
+    int[] neighbors = TABLES[size][blank];
+    System.arraycopy(neighbors, 0, buffer, 0, neighbors.length);
+    return neighbors.length;
+  }
+
+}
@@ -0,0 +1,353 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compact, bit-packed representation of a square tile arrangement, intended for use by solvers and
+ * batch tools that must process large numbers of states. Each cell holds the number of the tile
+ * occupying it, with the empty space represented by the value <code>size<sup>2</sup> - 1</code>
+ * (i.e. the number corresponding to its home position, in the lower-right corner).
+ * <p>
+ * Cells are packed in row-major order, using 4 bits per cell for puzzles up to 4 X 4 (so that an
+ * entire 15-puzzle fits in a single {@code long}), and the minimum number of bits required to
+ * represent <code>size<sup>2</sup> - 1</code> for larger puzzles. A cell never straddles a word
+ * boundary, so 5 X 5 puzzles occupy 3 words, and 6 X 6 puzzles occupy 4 words. Sliding a tile in
+ * an instance takes a pair of masked writes; for single-word states held as {@code long} values,
+ * the static {@link #slide(long, int, int, int)} slides a tile with a pair of XOR operations, and
+ * equality comparison is a single {@code long} comparison.
+ * </p>
+ * <p>
+ * States are ordered by size, and then by their packed words (compared as unsigned values, from the
+ * highest-index word down); for single-word states, this is simply unsigned comparison of the
+ * packed values.
+ * </p>
+ */
+public final class PackedState implements Arrangement, Comparable<PackedState> {
+
+  /** Minimum supported height and width. */
+  public static final int MIN_SIZE = 2;
+  /** Maximum supported height and width. */
+  public static final int MAX_SIZE = 8;
+
+  private static final int MIN_BITS_PER_CELL = 4;
+
+  private final int size;
+  private final int bitsPerCell;
+  private final int cellsPerWord;
+  private final long cellMask;
+  private final long[] words;
+  private int blank;
+
+  /**
+   * Initializes this instance in the solved (in-order) arrangement for the specified size.
+   *
+   * @param size height and width of puzzle.
+   * @throws IllegalArgumentException if {@code size} is outside the range {@link #MIN_SIZE} to
+   *                                  {@link #MAX_SIZE} (inclusive).
+   */
+  public PackedState(int size) {
+    if (size < MIN_SIZE || size > MAX_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    int numCells = size * size;
+    this.size = size;
+    bitsPerCell = Math.max(MIN_BITS_PER_CELL,
+        Integer.SIZE - Integer.numberOfLeadingZeros(numCells - 1));
+    cellsPerWord = Long.SIZE / bitsPerCell;
+    cellMask = (1L << bitsPerCell) - 1;
+    words = new long[(numCells + cellsPerWord - 1) / cellsPerWord];
+    for (int position = 0; position < numCells; position++) {
+      write(position, position);
+    }
+    blank = numCells - 1;
+  }
+
+  /**
+   * Initializes this instance with the specified arrangement of tile numbers, in row-major order.
+   * No check is made for solvability of the arrangement.
+   *
+   * @param size  height and width of puzzle.
+   * @param cells tile numbers, with the empty space represented by <code>size<sup>2</sup> -
+   *              1</code>.
+   * @throws IllegalArgumentException if {@code cells} is not a permutation of the values 0 to
+   *                                  <code>size<sup>2</sup> - 1</code>.
+   */
+  public PackedState(int size, int[] cells) {
+    this(size);
+    if (cells.length != size * size) {
+      throw new IllegalArgumentException();
+    }
+    load((position) -> cells[position]);
+  }
+
+  /**
+   * Initializes this instance with a packed copy of the specified arrangement.
+   *
+   * @param source arrangement from which this instance will be initialized.
+   * @throws IllegalArgumentException if {@code source} is not a valid arrangement.
+   */
+  public PackedState(Arrangement source) {
+    this(source.getSize());
+    load(source);
+  }
+
+  /**
+   * Initializes this instance as a copy of the specified instance.
+   *
+   * @param other instance from which this instance will be initialized.
+   */
+  public PackedState(PackedState other) {
+    size = other.size;
+    bitsPerCell = other.bitsPerCell;
+    cellsPerWord = other.cellsPerWord;
+    cellMask = other.cellMask;
+    words = other.words.clone();
+    blank = other.blank;
+  }
+
+  /**
+   * Creates and returns a state of the specified size from a single packed word, as returned by
+   * {@link #toLong()}.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @param word packed cells.
+   * @return unpacked state.
+   * @throws IllegalArgumentException if {@code size} requires more than a single word, or {@code
+   *                                  word} is not a valid packed arrangement (i.e. its cells are
+   *                                  not a permutation of the values 0 to <code>size<sup>2</sup> -
+   *                                  1</code>, or its unused high-order bits are not zero).
+   */
+  public static PackedState fromLong(int size, long word) {
+    PackedState state = new PackedState(size);
+    int numCells = size * size;
+    if (state.words.length != 1 || (numCells < 16 && (word >>> (numCells << 2)) != 0)) {
+      throw new IllegalArgumentException();
+    }
+    state.load((position) -> (int) (word >>> (position << 2)) & 0xF);
+    return state;
+  }
+
+  /**
+   * Slides the tile at position {@code from} in the single-word state {@code word} into the empty
+   * space at position {@code blank}. No check is made that the positions are adjacent.
+   *
+   * @param word  packed state of a puzzle no larger than 4 X 4.
+   * @param size  height and width of puzzle.
+   * @param blank position of empty space.
+   * @param from  position of tile to slide.
+   * @return packed state after the tile has been moved.
+   */
+  public static long slide(long word, int size, int blank, int from) {
+    int fromShift = from << 2;
+    long delta = ((word >>> fromShift) & 0xF) ^ (size * size - 1);
+    return word ^ (delta << fromShift) ^ (delta << (blank << 2));
+  }
+
+  /**
+   * Returns the position of the empty space in the single-word state {@code word}.
+   *
+   * @param word packed state of a puzzle no larger than 4 X 4.
+   * @param size height and width of puzzle.
+   * @return position of empty space, or -1 if not found.
+   */
+  public static int findBlank(long word, int size) {
+    int numCells = size * size;
+    for (int position = 0; position < numCells; position++) {
+      if (((word >>> (position << 2)) & 0xF) == numCells - 1) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the number of the tile at the specified row-major position; the empty space is
+   * represented by <code>size<sup>2</sup> - 1</code>.
+   *
+   * @param position cell index ({@code row * size + col}).
+   * @return tile number.
+   */
+  public int get(int position) {
+    return (int) ((words[position / cellsPerWord]
+        >>> ((position % cellsPerWord) * bitsPerCell)) & cellMask);
+  }
+
+  @Override
+  public int getTileNumber(int position) {
+    return get(position);
+  }
+
+  /**
+   * Returns the position of the empty space.
+   */
+  public int getBlank() {
+    return blank;
+  }
+
+  /**
+   * Moves the tile at the specified position into the empty space. No check is made that the
+   * position is adjacent to the empty space.
+   *
+   * @param from position of tile to slide.
+   */
+  public void slide(int from) {
+    int to = blank;
+    int value = get(from);
+    write(to, value);
+    write(from, size * size - 1);
+    blank = from;
+  }
+
+  /**
+   * Returns the number of {@code long} words used to pack this state.
+   */
+  public int getWordCount() {
+    return words.length;
+  }
+
+  /**
+   * Returns the packed word at the specified index.
+   *
+   * @param index word index, from 0 to {@link #getWordCount()} - 1.
+   */
+  public long getWord(int index) {
+    return words[index];
+  }
+
+  /**
+   * Returns the packed value of this state, for states that fit in a single word (i.e. those no
+   * larger than 4 X 4).
+   *
+   * @throws IllegalStateException if this state occupies more than one word.
+   */
+  public long toLong() {
+    if (words.length != 1) {
+      throw new IllegalStateException();
+    }
+    return words[0];
+  }
+
+  /**
+   * Returns the tile numbers of this state, in row-major order.
+   */
+  public int[] toArray() {
+    int[] cells = new int[size * size];
+    for (int position = 0; position < cells.length; position++) {
+      cells[position] = get(position);
+    }
+    return cells;
+  }
+
+  /**
+   * Returns {@code true} if this state is in the solved (in-order) arrangement.
+   */
+  public boolean isSolved() {
+    int numCells = size * size;
+    for (int position = 0; position < numCells; position++) {
+      if (get(position) != position) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int compareTo(PackedState other) {
+    int comparison = Integer.compare(size, other.size);
+    for (int i = words.length - 1; comparison == 0 && i >= 0; i--) {
+      comparison = Long.compareUnsigned(words[i], other.words[i]);
+    }
+    return comparison;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    boolean comparison = false;
+    if (this == obj) {
+      comparison = true;
+    } else if (obj instanceof PackedState) {
+      PackedState other = (PackedState) obj;
+      comparison = size == other.size
+          && (words.length == 1
+          ? words[0] == other.words[0]
+          : Arrays.equals(words, other.words));
+    }
+    return comparison;
+  }
+
+  @Override
+  public int hashCode() {
+    long hash = size;
+    for (long word : words) {
+      hash = hash * 0x9E3779B97F4A7C15L + word;
+    }
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  /**
+   * Replaces the contents of this state with the specified arrangement, which must be of the same
+   * size.
+   *
+   * @param source arrangement to copy.
+   * @throws IllegalArgumentException if {@code source} is not a permutation of the values 0 to
+   *                                  <code>size<sup>2</sup> - 1</code>.
+   */
+  void load(Arrangement source) {
+    if (source.getSize() != size) {
+      throw new IllegalArgumentException();
+    }
+    load(source::getTileNumber);
+  }
+
+  private void load(IntUnaryOperator cells) {
+    int numCells = size * size;
+    long seen = 0;
+    for (int position = 0; position < numCells; position++) {
+      int value = cells.applyAsInt(position);
+      if (value < 0 || value >= numCells || (seen & (1L << value)) != 0) {
+        throw new IllegalArgumentException();
+      }
+      seen |= 1L << value;
+    }
+    for (int position = 0; position < numCells; position++) {
+      int value = cells.applyAsInt(position);
+      write(position, value);
+      if (value == numCells - 1) {
+        blank = position;
+      }
+    }
+  }
+
+  private void write(int position, int value) {
+    int index = position / cellsPerWord;
+    int shift = (position % cellsPerWord) * bitsPerCell;
+    words[index] = (words[index] & ~(cellMask << shift)) | ((long) value << shift);
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+/**
+ * Mutable {@link Arrangement} view of a single-word packed arrangement (see {@link
+ * PackedState#toLong()}), allowing packed arrangements held in primitive arrays or buffers to be
+ * measured or inspected without unpacking or allocating. A single instance is typically reused, via
+ * {@link #set(long)}, for many arrangements; instances are therefore not safe for use by multiple
+ * threads.
+ */
+public final class PackedView implements Arrangement {
+
+  private final int size;
+  private long word;
+
+  /**
+   * Initializes this instance as a view of the solved arrangement of the specified size.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @throws IllegalArgumentException if {@code size} is not supported.
+   */
+  public PackedView(int size) {
+    if (size < PackedState.MIN_SIZE || size > 4) {
+      throw new IllegalArgumentException();
+    }
+    this.size = size;
+    word = new PackedState(size).toLong();
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public int getTileNumber(int position) {
+    return (int) (word >>> (position << 2)) & 0xF;
+  }
+
+  /**
+   * Sets the packed arrangement presented by this view.
+   *
+   * @param word packed arrangement.
+   * @return this instance.
+   */
+  public PackedView set(long word) {
+    this.word = word;
+    return this;
+  }
+
+}
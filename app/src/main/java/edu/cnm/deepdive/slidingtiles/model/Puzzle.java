@@ -15,12 +15,9 @@
  */
 package edu.cnm.deepdive.slidingtiles.model;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * {@code Puzzle} implements a simple sliding tile puzzle consisting of a square arrangement of
@@ -41,23 +38,28 @@ import java.util.Set;
  * @see <a href="https://en.wikipedia.org/wiki/15_puzzle">15-puzzle&mdash;Wikipedia</a>
  */
 @SuppressWarnings("unused")
-public class Puzzle {
+public class Puzzle implements Arrangement {
 
   private final int size;
-  private final Tile[][] tiles;
-  private Tile[][] start; // May be null (e.g. in an instance used by a solver).
-  private List<Move> moves;
-  private Set<Integer> arrangements;
-  private int hash;
+  private final byte[] cells;
+  private final PackedState state;
+  private byte[] start; // May be null (e.g. in an instance used by a solver).
+  private MoveHistory history;
+  private long key;
+  private long reflectedKey;
+  private int blank;
+  private int misplaced;
+  private int manhattan;
 
   /**
-   * Begin initializing the {@code Puzzle} by creating an array for the {@link Tile} objects.
+   * Begin initializing the {@code Puzzle} by creating a flat array for the tile numbers.
    *
    * @param size height and width of puzzle.
    */
   protected Puzzle(int size) {
     this.size = size;
-    tiles = new Tile[size][size];
+    cells = new byte[size * size];
+    state = new PackedState(size);
     clearHistory();
   }
 
@@ -73,19 +75,43 @@ public class Puzzle {
 
   /**
    * Initializes the {@code Puzzle} as a copy of the specified instance, for use in solution/hinting
-   * algorithm implementations.
+   * algorithm implementations. The history of moves and arrangements is shared with {@code other}
+   * (see {@link MoveHistory#fork()}), rather than copied, so the cost of this constructor does not
+   * depend on the number of moves made before the copy.
    *
    * @param other instance from which this instance will be initialized.
    */
   public Puzzle(Puzzle other, boolean copyStartingPosition) {
     this(other.size);
-    if (copyStartingPosition) {
-      start = new Tile[size][size];
-      copy(other.start, start);
+    if (copyStartingPosition && other.start != null) {
+      start = other.start.clone();
     }
-    moves.addAll(other.moves);
-    arrangements.addAll(other.arrangements);
-    hash = other.hash;
+    System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    history = other.history.fork();
+    pack();
+    key = other.key;
+    reflectedKey = other.reflectedKey;
+  }
+
+  /**
+   * Initializes the {@code Puzzle} with the arrangement of tiles in the specified {@link
+   * PackedState}, which also becomes the starting position. This may be used to run a puzzle from
+   * a state produced by a solver or batch tool.
+   *
+   * @param state arrangement from which this instance will be initialized.
+   * @throws IllegalArgumentException if {@code state} is not solvable.
+   */
+  public Puzzle(PackedState state) {
+    this(state.getSize());
+    if (!Solvability.isSolvable(state)) {
+      throw new IllegalArgumentException();
+    }
+    for (int position = 0; position < cells.length; position++) {
+      cells[position] = (byte) state.get(position);
+    }
+    start = cells.clone();
+    pack();
+    hash();
   }
 
   /**
@@ -97,10 +123,9 @@ public class Puzzle {
    */
   public Puzzle(int size, Random rng) {
     this(size);
-    for (int i = 0; i < size * size - 1; i++) {
-      tiles[i / size][i % size] = new Tile(i);
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = (byte) i;
     }
-    tiles[size - 1][size - 1] = null;
     scramble(rng);
   }
 
@@ -111,14 +136,14 @@ public class Puzzle {
       comparison = true;
     } else if (obj instanceof Puzzle) {
       Puzzle puzzle = (Puzzle) obj;
-      comparison = puzzle.hash == hash && Arrays.deepEquals(tiles, puzzle.tiles);
+      comparison = puzzle.key == key && state.equals(puzzle.state);
     }
     return comparison;
   }
 
   @Override
   public int hashCode() {
-    return hash;
+    return Zobrist.fold(key);
   }
 
   /**
@@ -131,9 +156,9 @@ public class Puzzle {
     if (!isParityEven()) {
       swapTopRowPair();
     }
-    start = new Tile[size][size];
-    copy(tiles, start);
+    start = cells.clone();
     clearHistory();
+    pack();
     hash();
   }
 
@@ -143,8 +168,9 @@ public class Puzzle {
    */
   public void reset() {
     if (start != null) {
-      copy(start, tiles);
+      System.arraycopy(start, 0, cells, 0, cells.length);
       clearHistory();
+      pack();
       hash();
     }
   }
@@ -160,53 +186,190 @@ public class Puzzle {
    * location; {@code null} if such a move is not possible.
    */
   public List<Move> move(int fromRow, int fromCol) {
-    if (tiles[fromRow][fromCol] != null) {
-      for (int col = 0; col < size; col++) {
-        if (tiles[fromRow][col] == null) {
-          List<Move> moves = new LinkedList<>();
-          int step = (int) Math.signum(fromCol - col);
-          do {
-            moves.add(move(fromRow, col + step, fromRow, col));
-            col += step;
-          } while (col != fromCol);
-          return moves;
-        }
+    if (!isOnBoard(fromRow, fromCol)) {
+      return null;
+    }
+    int blankRow = blank / size;
+    int blankCol = blank % size;
+    if (fromRow == blankRow && fromCol != blankCol) {
+      List<Move> moves = new LinkedList<>();
+      int step = (fromCol > blankCol) ? 1 : -1;
+      for (int col = blankCol; col != fromCol; col += step) {
+        moves.add(move(fromRow, col + step, fromRow, col));
       }
-      for (int row = 0; row < size; row++) {
-        if (tiles[row][fromCol] == null) {
-          List<Move> moves = new LinkedList<>();
-          int step = (int) Math.signum(fromRow - row);
-          do {
-            moves.add(move(row + step, fromCol, row, fromCol));
-            row += step;
-          } while (row != fromRow);
-          return moves;
-        }
+      return moves;
+    } else if (fromCol == blankCol && fromRow != blankRow) {
+      List<Move> moves = new LinkedList<>();
+      int step = (fromRow > blankRow) ? 1 : -1;
+      for (int row = blankRow; row != fromRow; row += step) {
+        moves.add(move(row + step, fromCol, row, fromCol));
       }
+      return moves;
     }
     return null;
   }
 
+  /**
+   * Determines whether the specified location contains a tile in the same row or column as the open
+   * space, and if so, moves one or more tiles in order, so that the specified location becomes the
+   * empty space. This is equivalent to {@link #move(int, int)}, but the single-tile moves are
+   * written to {@code buffer} in packed form (see {@link Move#pack(int, int)}), rather than
+   * returned as {@link Move} instances, so that no allocation is performed.
+   *
+   * @param fromRow vertical coordinate of the tile to be moved.
+   * @param fromCol horizontal coordinate of the tile to be moved.
+   * @param buffer  destination for packed moves; must have room for at least {@code size - 1}
+   *                elements.
+   * @return number of single-tile moves written to {@code buffer}; 0 if the move is not possible.
+   */
+  public int move(int fromRow, int fromCol, int[] buffer) {
+    if (!isOnBoard(fromRow, fromCol)) {
+      return 0;
+    }
+    int from = fromRow * size + fromCol;
+    int step;
+    if (fromRow == blank / size && fromCol != blank % size) {
+      step = (from > blank) ? 1 : -1;
+    } else if (fromCol == blank % size && fromRow != blank / size) {
+      step = (from > blank) ? size : -size;
+    } else {
+      return 0;
+    }
+    int count = 0;
+    while (blank != from) {
+      int next = blank + step;
+      buffer[count++] = Move.pack(next, blank);
+      slide(next, blank);
+    }
+    return count;
+  }
+
+  /**
+   * Applies a single packed move (see {@link Move#pack(int, int)}), if the move slides a tile
+   * adjacent to the empty space into that space.
+   *
+   * @param move packed move.
+   * @return {@code true} if the move was applied; {@code false} if it is not legal.
+   */
+  public boolean apply(int move) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    if (to != blank || from >= cells.length) {
+      return false;
+    }
+    for (int neighbor : Neighbors.of(size)[blank]) {
+      if (neighbor == from) {
+        slide(from, to);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a {@link Move} view of the retained move at the specified index in the history of this
+   * puzzle, where 0 is the oldest retained move.
+   *
+   * @param index index of move, from 0 to the number of retained moves - 1.
+   * @return move at the specified index.
+   * @see MoveHistory#getRetained()
+   */
+  public Move getMove(int index) {
+    return Move.unpack(size, history.getMove(index), history.getFromKey(index));
+  }
+
+  /**
+   * Fills {@code buffer} with the row-major positions of the tiles that may be moved (in a single
+   * step) into the empty space, and returns the number of such positions. The positions are read
+   * from a precomputed {@link Neighbors} table, using the tracked position of the empty space, so
+   * no scanning or allocation is performed.
+   *
+   * @param buffer destination for tile positions; must have room for at least 4 elements.
+   * @return number of legal single-tile moves.
+   */
+  public int getLegalMoves(int[] buffer) {
+    return Neighbors.fill(size, blank, buffer);
+  }
+
+  /**
+   * Returns the row-major position ({@code row * size + col}) of the empty space.
+   */
+  public int getBlankPosition() {
+    return blank;
+  }
+
   /**
    * Returns the size (height and width) of this {@code Puzzle} instance.
    */
+  @Override
   public int getSize() {
     return size;
   }
 
+  /**
+   * Returns the number of the tile at the specified row-major position, read directly from the
+   * current arrangement without copying. The empty space is represented by <code>size<sup>2</sup>
+   * - 1</code>.
+   *
+   * @param position cell index ({@code row * size + col}).
+   * @return tile number.
+   */
+  @Override
+  public int getTileNumber(int position) {
+    return cells[position];
+  }
+
   /**
    * Returns the current arrangement of {@link Tile} instances. The value returned is safe, in the
    * sense that changes to the contents of the array returned have no affect on this instance's
-   * tiles.
+   * tiles. Since this allocates a new array on every invocation, consumers that only need to read
+   * the arrangement should use {@link #getTile(int, int)} or {@link #getTileNumber(int)} instead.
    *
    * @return current arrangement of tiles.
    */
   public Tile[][] getTiles() {
     Tile[][] copy = new Tile[size][size];
-    copy(tiles, copy);
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        copy[row][col] = getTile(row, col);
+      }
+    }
     return copy;
   }
 
+  /**
+   * Returns a copy of the current arrangement, in bit-packed form.
+   *
+   * @return current arrangement of tiles.
+   */
+  public PackedState getState() {
+    return new PackedState(state);
+  }
+
+  /**
+   * Returns the 64-bit Zobrist key of the current arrangement. This key is maintained incrementally
+   * as tiles are moved, and is suitable for use in history sets, transposition tables, and caches.
+   *
+   * @return arrangement key.
+   * @see Zobrist
+   */
+  public long getKey() {
+    return key;
+  }
+
+  /**
+   * Returns a 64-bit key that is shared by the current arrangement and its reflection about the
+   * main diagonal. Like {@link #getKey()}, this is maintained incrementally as tiles are moved; it
+   * may be used to key solution caches, distance tables, and visited sets that store only one of
+   * each reflected pair of arrangements.
+   *
+   * @return canonical arrangement key.
+   * @see Symmetry
+   */
+  public long getCanonicalKey() {
+    return Symmetry.canonicalKey(key, reflectedKey);
+  }
+
   /**
    * Returns the number of single tile moves performed since the puzzle was initialized using the
    * {@link #Puzzle(int, Random)} constructor, or since the last invocation of either the {@link
@@ -215,51 +378,111 @@ public class Puzzle {
    * @return number of tile moves.
    */
   public int getMoveCount() {
-    return moves.size();
+    return history.getCount();
+  }
+
+  /**
+   * Returns {@code true} if the current arrangement was previously reached (and moved away from)
+   * since the start of play, within the retained history of moves.
+   *
+   * @return flag indicating whether the current arrangement is a repeated position.
+   */
+  public boolean isRepeated() {
+    return history.contains(key);
+  }
+
+  /**
+   * Returns {@code true} if the arrangement with the specified key was previously reached (and
+   * moved away from) since the start of play, within the retained history of moves.
+   *
+   * @param key arrangement key, as returned by {@link #getKey()}.
+   * @return flag indicating whether the arrangement has been visited.
+   */
+  public boolean hasVisited(long key) {
+    return history.contains(key);
+  }
+
+  /**
+   * Limits the number of moves (and previously visited arrangements) retained in the history of
+   * this puzzle, clearing the current history. The move count is not limited.
+   *
+   * @param limit maximum number of retained moves, or {@link MoveHistory#UNLIMITED}.
+   */
+  public void setHistoryLimit(int limit) {
+    history = new MoveHistory(limit);
   }
 
   /**
    * Compares the current tile arrangement to the target ordered arrangement, returning {@code true}
-   * if the current arrangement is in-order, and {@code false} otherwise.
+   * if the current arrangement is in-order, and {@code false} otherwise. Since the number of
+   * misplaced tiles is maintained incrementally, this is a constant-time check.
    *
    * @return flag indicating the in-order status of the current tile arrangement.
    */
   public boolean isSolved() {
-    for (int i = 0; i < size * size - 1; i++) {
-      Tile tile = tiles[i / size][i % size];
-      if (tile == null || tile.getNumber() != i) {
-        return false;
-      }
-    }
-    return true;
+    return misplaced == 0;
+  }
+
+  /**
+   * Returns the number of tiles not in their home positions, maintained incrementally as tiles are
+   * moved.
+   *
+   * @return number of misplaced tiles.
+   */
+  public int getMisplacedCount() {
+    return misplaced;
   }
 
   /**
-   * Computes the hash code of the current arrangement.
+   * Returns the sum of the horizontal and vertical distances of the tiles from their home
+   * positions, maintained incrementally as tiles are moved.
+   *
+   * @return Manhattan distance of the current arrangement.
+   */
+  public int getManhattanDistance() {
+    return manhattan;
+  }
+
+  /**
+   * Computes the Zobrist keys of the current arrangement and its reflection from scratch.
    */
   protected void hash() {
-    hash = Arrays.deepHashCode(tiles);
+    key = Zobrist.key(state);
+    reflectedKey = Zobrist.key(Symmetry.reflect(state));
+  }
+
+  /**
+   * Rebuilds the packed form of the current arrangement, the position of the empty space, and the
+   * misplaced-tile and Manhattan distance counters from the tiles.
+   */
+  protected void pack() {
+    state.load(this);
+    blank = state.getBlank();
+    misplaced = 0;
+    manhattan = 0;
+    for (int position = 0; position < cells.length; position++) {
+      int number = cells[position];
+      if (number != cells.length - 1) {
+        misplaced += (number != position) ? 1 : 0;
+        manhattan += distance(number, position);
+      }
+    }
   }
 
   /**
    * Clears the history of tile moves and intermediate arrangements.
    */
   protected void clearHistory() {
-    if (moves == null) {
-      moves = new LinkedList<>();
-    } else {
-      moves.clear();
-    }
-    if (arrangements == null) {
-      arrangements = new HashSet<>();
+    if (history == null) {
+      history = new MoveHistory();
     } else {
-      arrangements.clear();
+      history.clear();
     }
   }
 
   /**
-   * Moves a single tile to an adjacent (empty) space, updating the hash code, history of moves, and
-   * history of arrangements.
+   * Moves a single tile to an adjacent (empty) space, updating the arrangement key (in constant
+   * time), history of moves, and history of arrangements.
    *
    * @param fromRow starting row position of tile to move.
    * @param fromCol starting column position of tile to move.
@@ -268,14 +491,31 @@ public class Puzzle {
    * @return {@link Move} instance encapsulating tile move.
    */
   protected Move move(int fromRow, int fromCol, int toRow, int toCol) {
-    Move move = new Move(fromRow, fromCol, hash, toRow, toCol);
-    arrangements.add(hash);
-    swap(tiles, fromRow, fromCol, toRow, toCol);
-    hash();
-    moves.add(move);
+    Move move = new Move(fromRow, fromCol, key, toRow, toCol);
+    slide(fromRow * size + fromCol, toRow * size + toCol);
     return move;
   }
 
+  /**
+   * Moves a single tile to the adjacent empty space, updating the arrangement keys, history of
+   * moves, and history of arrangements.
+   *
+   * @param from starting row-major position of tile to move.
+   * @param to   ending row-major position of tile to move (i.e. position of the empty space).
+   */
+  protected void slide(int from, int to) {
+    int number = cells[from];
+    history.add(Move.pack(from, to), key);
+    key ^= Zobrist.delta(size, number, from, to);
+    reflectedKey ^= Zobrist.delta(size, Symmetry.reflect(size, number),
+        Symmetry.reflect(size, from), Symmetry.reflect(size, to));
+    misplaced += ((number == from) ? 1 : 0) - ((number == to) ? 1 : 0);
+    manhattan += distance(number, to) - distance(number, from);
+    swap(cells, from, to);
+    state.slide(from);
+    blank = from;
+  }
+
   /**
    * Randomly shuffles all of the tiles, without regard to the solvability of the resulting
    * arrangement.
@@ -283,14 +523,10 @@ public class Puzzle {
    * @param rng source of randomness.
    */
   protected void shuffle(Random rng) {
-    for (int toPosition = size * size - 1; toPosition >= 0; toPosition--) {
-      int toRow = toPosition / size;
-      int toCol = toPosition % size;
+    for (int toPosition = cells.length - 1; toPosition >= 0; toPosition--) {
       int fromPosition = rng.nextInt(toPosition + 1);
       if (fromPosition != toPosition) {
-        int fromRow = fromPosition / size;
-        int fromCol = fromPosition % size;
-        swap(tiles, fromRow, fromCol, toRow, toCol);
+        swap(cells, fromPosition, toPosition);
       }
     }
   }
@@ -302,67 +538,38 @@ public class Puzzle {
    * parity is even&mdash;that is, if this method returns {@code true}.
    *
    * @return parity flag, indicating even ({@code true}) or odd ({@code false}) parity.
+   * @see Solvability#isSolvable(Arrangement)
    */
   protected boolean isParityEven() {
-    int sum = 0;
-    Tile[][] work = new Tile[size][size];
-    copy(tiles, work);
-    for (int row = 0; row < size; row++) {
-      for (int col = 0; col < size; col++) {
-        if (tiles[row][col] == null) {
-          sum += Math.abs(row - size + 1) + Math.abs(col - size + 1);
-          break;
-        }
-      }
-    }
-    for (int fromRow = 0; fromRow < size; fromRow++) {
-      for (int fromCol = 0; fromCol < size; fromCol++) {
-        int fromPosition = fromRow * size + fromCol;
-        int toPosition = (work[fromRow][fromCol] != null)
-            ? work[fromRow][fromCol].getNumber() : size * size - 1;
-        while (toPosition != fromPosition) {
-          int toRow = toPosition / size;
-          int toCol = toPosition % size;
-          swap(work, fromRow, fromCol, toRow, toCol);
-          sum++;
-          toPosition = (work[fromRow][fromCol] != null)
-              ? work[fromRow][fromCol].getNumber() : size * size - 1;
-        }
-      }
-    }
-    return (sum & 1) == 0;
+    return Solvability.isSolvable(this);
   }
 
   /**
-   * Swaps a pair of adjacent tiles in the top row. This has the effect of switch from odd to even
-   * parity (or vice versa).
+   * Swaps the first two tiles in row-major order (skipping the empty space, if present). This has
+   * the effect of switch from odd to even parity (or vice versa).
    */
   protected void swapTopRowPair() {
-    for (int col = 0; col < size - 1; col++) {
-      if (tiles[0][col] != null && tiles[0][col + 1] != null) {
-        swap(tiles, 0, col, 0, col + 1);
-        break;
-      }
-    }
+    int blank = cells.length - 1;
+    int first = (cells[0] != blank) ? 0 : 1;
+    int second = (cells[first + 1] != blank) ? first + 1 : first + 2;
+    swap(cells, first, second);
   }
 
-  /**
-   * Swaps the pair of tiles in the specified locations.
-   */
-  protected void swap(Tile[][] tiles, int fromRow, int fromCol, int toRow, int toCol) {
-    Tile temp = tiles[toRow][toCol];
-    tiles[toRow][toCol] = tiles[fromRow][fromCol];
-    tiles[fromRow][fromCol] = temp;
+  private boolean isOnBoard(int row, int col) {
+    return row >= 0 && row < size && col >= 0 && col < size;
+  }
+
+  private int distance(int number, int position) {
+    return Math.abs(position / size - number / size) + Math.abs(position % size - number % size);
   }
 
   /**
-   * Copies an entire {@link Tile Tile[][]} source arrangement to a destination {@link Tile
-   * Tile[][]}.
+   * Swaps the pair of tiles in the specified row-major positions.
    */
-  protected static void copy(Tile[][] source, Tile[][] dest) {
-    for (int row = 0; row < source.length; row++) {
-      System.arraycopy(source[row], 0, dest[row], 0, source.length);
-    }
+  protected static void swap(byte[] cells, int fromPosition, int toPosition) {
+    byte temp = cells[toPosition];
+    cells[toPosition] = cells[fromPosition];
+    cells[fromPosition] = temp;
   }
 
 }
@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.math.BigInteger;
+
+/**
+ * Maps tile arrangements (and partial arrangements, consisting of the positions of a chosen subset
+ * of tiles) to and from dense integer ranks, using the lexicographic
+ * <a href="https://en.wikipedia.org/wiki/Lehmer_code">Lehmer code</a>. Ranks of full arrangements
+ * of <em>n</em> cells lie in the range 0 to <em>n</em>! - 1, and ranks of partial arrangements of
+ * <em>k</em> tiles lie in the range 0 to <em>n</em>! / (<em>n</em> - <em>k</em>)! - 1, so they may
+ * be used to index flat arrays (e.g. distance tables, pattern databases, and visited sets) in place
+ * of hash maps.
+ * <p>
+ * Each Lehmer digit is computed in constant time, by counting (with {@link Long#bitCount(long)})
+ * the already-used values below the current value, so ranking is linear in the number of values
+ * ranked. Full arrangements of more than {@value #MAX_LONG_CELLS} cells (i.e. puzzles larger than 4
+ * X 4) have more arrangements than can be ranked in a {@code long}; the {@link BigInteger} variants
+ * must be used for those.
+ * </p>
+ */
+public final class Ranking {
+
+  /** Maximum number of cells in a full arrangement that can be ranked in a {@code long}. */
+  public static final int MAX_LONG_CELLS = 20;
+
+  private Ranking() {
+  }
+
+  /**
+   * Returns the number of distinct ranks of {@code k} distinct values drawn from {@code n}
+   * (i.e. <em>n</em>! / (<em>n</em> - <em>k</em>)!).
+   *
+   * @param n number of available values (e.g. cells).
+   * @param k number of values ranked (e.g. tiles).
+   * @return number of ranks.
+   * @throws ArithmeticException if the result overflows a {@code long}.
+   */
+  public static long count(int n, int k) {
+    long count = 1;
+    for (int i = 0; i < k; i++) {
+      count = Math.multiplyExact(count, n - i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the rank of a sequence of {@code k} distinct values, each in the range 0 to {@code n} -
+   * 1. No allocation is performed.
+   *
+   * @param n      number of available values; at most 64.
+   * @param values values to rank.
+   * @param k      number of values (from the start of {@code values}) to rank.
+   * @return rank, in the range 0 to {@link #count(int, int) count(n, k)} - 1.
+   */
+  public static long rank(int n, int[] values, int k) {
+    long used = 0;
+    long rank = 0;
+    for (int i = 0; i < k; i++) {
+      int value = values[i];
+      rank = rank * (n - i) + value - Long.bitCount(used & ((1L << value) - 1));
+      used |= 1L << value;
+    }
+    return rank;
+  }
+
+  /**
+   * Computes the sequence of {@code k} distinct values with the specified rank; this is the inverse
+   * of {@link #rank(int, int[], int)}. No allocation is performed.
+   *
+   * @param n      number of available values; at most 64.
+   * @param k      number of values.
+   * @param rank   rank, in the range 0 to {@link #count(int, int) count(n, k)} - 1.
+   * @param values destination for values; must have room for at least {@code k} elements.
+   */
+  public static void unrank(int n, int k, long rank, int[] values) {
+    for (int i = k - 1; i >= 0; i--) {
+      int radix = n - i;
+      values[i] = (int) (rank % radix);
+      rank /= radix;
+    }
+    long used = 0;
+    for (int i = 0; i < k; i++) {
+      int value = select(~used, values[i]);
+      values[i] = value;
+      used |= 1L << value;
+    }
+  }
+
+  /**
+   * Returns the rank of the specified arrangement, which must have no more than {@value
+   * #MAX_LONG_CELLS} cells.
+   *
+   * @param arrangement arrangement to rank.
+   * @return rank, in the range 0 to <em>n</em>! - 1.
+   * @throws IllegalArgumentException if the arrangement has too many cells.
+   */
+  public static long rank(Arrangement arrangement) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    if (numCells > MAX_LONG_CELLS) {
+      throw new IllegalArgumentException();
+    }
+    long used = 0;
+    long rank = 0;
+    for (int position = 0; position < numCells; position++) {
+      int value = arrangement.getTileNumber(position);
+      rank = rank * (numCells - position) + value - Long.bitCount(used & ((1L << value) - 1));
+      used |= 1L << value;
+    }
+    return rank;
+  }
+
+  /**
+   * Returns the arrangement with the specified rank; this is the inverse of {@link
+   * #rank(Arrangement)}.
+   *
+   * @param size height and width of puzzle; at most 4.
+   * @param rank rank, in the range 0 to <em>n</em>! - 1.
+   * @return arrangement with the specified rank.
+   */
+  public static PackedState unrank(int size, long rank) {
+    int[] cells = new int[size * size];
+    if (cells.length > MAX_LONG_CELLS) {
+      throw new IllegalArgumentException();
+    }
+    unrank(cells.length, cells.length, rank, cells);
+    return new PackedState(size, cells);
+  }
+
+  /**
+   * Returns the rank of the specified arrangement, of any supported size.
+   *
+   * @param arrangement arrangement to rank.
+   * @return rank, in the range 0 to <em>n</em>! - 1.
+   */
+  public static BigInteger rankExact(Arrangement arrangement) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    long used = 0;
+    BigInteger rank = BigInteger.ZERO;
+    for (int position = 0; position < numCells; position++) {
+      int value = arrangement.getTileNumber(position);
+      rank = rank.multiply(BigInteger.valueOf(numCells - position))
+          .add(BigInteger.valueOf(value - Long.bitCount(used & ((1L << value) - 1))));
+      used |= 1L << value;
+    }
+    return rank;
+  }
+
+  /**
+   * Returns the arrangement with the specified rank; this is the inverse of {@link
+   * #rankExact(Arrangement)}.
+   *
+   * @param size height and width of puzzle.
+   * @param rank rank, in the range 0 to <em>n</em>! - 1.
+   * @return arrangement with the specified rank.
+   */
+  public static PackedState unrankExact(int size, BigInteger rank) {
+    int[] cells = new int[size * size];
+    for (int i = cells.length - 1; i >= 0; i--) {
+      BigInteger[] quotientAndRemainder =
+          rank.divideAndRemainder(BigInteger.valueOf(cells.length - i));
+      cells[i] = quotientAndRemainder[1].intValue();
+      rank = quotientAndRemainder[0];
+    }
+    long used = 0;
+    for (int i = 0; i < cells.length; i++) {
+      int value = select(~used, cells[i]);
+      cells[i] = value;
+      used |= 1L << value;
+    }
+    return new PackedState(size, cells);
+  }
+
+  /**
+   * Returns the rank of the positions of the specified tiles in the specified arrangement, ignoring
+   * all other tiles. This is a convenience method, which allocates small working arrays; callers
+   * that track tile positions themselves should use {@link #rank(int, int[], int)} instead.
+   *
+   * @param arrangement arrangement containing pattern tiles.
+   * @param tiles       numbers of pattern tiles (which may include the empty space).
+   * @return rank, in the range 0 to {@link #count(int, int) count(n, tiles.length)} - 1.
+   */
+  public static long rank(Arrangement arrangement, int[] tiles) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    int[] positions = new int[numCells];
+    for (int position = 0; position < numCells; position++) {
+      positions[arrangement.getTileNumber(position)] = position;
+    }
+    int[] pattern = new int[tiles.length];
+    for (int i = 0; i < tiles.length; i++) {
+      pattern[i] = positions[tiles[i]];
+    }
+    return rank(numCells, pattern, pattern.length);
+  }
+
+  private static int select(long bits, int index) {
+    for (int i = 0; i < index; i++) {
+      bits &= bits - 1;
+    }
+    return Long.numberOfTrailingZeros(bits);
+  }
+
+}
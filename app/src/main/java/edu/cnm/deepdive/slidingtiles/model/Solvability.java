@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Determines whether tile arrangements are solvable, without allocating or modifying the
+ * arrangements. An arrangement (with the empty space treated as tile <code>size<sup>2</sup> -
+ * 1</code>) is solvable if and only if the parity of its permutation equals the parity of the
+ * Manhattan distance of the empty space from its home position; the permutation parity is computed
+ * in linear time by counting cycles, using a bit mask to mark visited cells.
+ * <p>
+ * Batch methods are provided for validating large numbers of imported or generated arrangements;
+ * these check the arrangements in parallel when the batch is large enough to benefit.
+ * </p>
+ */
+public final class Solvability {
+
+  private static final int PARALLEL_THRESHOLD = 1024;
+
+  private Solvability() {
+  }
+
+  /**
+   * Returns {@code true} if the specified arrangement can be solved.
+   *
+   * @param arrangement tile arrangement to check.
+   * @return solvability flag.
+   * @throws IllegalArgumentException if the tile numbers of {@code arrangement} are not a
+   *                                  permutation of the values 0 to <code>size<sup>2</sup> -
+   *                                  1</code>.
+   */
+  public static boolean isSolvable(Arrangement arrangement) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    if (size < PackedState.MIN_SIZE || size > PackedState.MAX_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    long seen = 0;
+    for (int position = 0; position < numCells; position++) {
+      int number = arrangement.getTileNumber(position);
+      if (number < 0 || number >= numCells || (seen & (1L << number)) != 0) {
+        throw new IllegalArgumentException();
+      }
+      seen |= 1L << number;
+    }
+    long visited = 0;
+    int transpositions = 0;
+    int blankDistance = 0;
+    for (int start = 0; start < numCells; start++) {
+      if ((visited & (1L << start)) == 0) {
+        int position = start;
+        do {
+          visited |= 1L << position;
+          int number = arrangement.getTileNumber(position);
+          if (number == numCells - 1) {
+            blankDistance = (size - 1 - position / size) + (size - 1 - position % size);
+          }
+          position = number;
+          transpositions++;
+        } while (position != start);
+        transpositions--;
+      }
+    }
+    return ((transpositions + blankDistance) & 1) == 0;
+  }
+
+  /**
+   * Returns {@code true} if the specified single-word packed arrangement (see {@link
+   * PackedState#toLong()}) can be solved.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @param word packed arrangement.
+   * @return solvability flag.
+   * @throws IllegalArgumentException if {@code size} is not supported, or {@code word} is not a
+   *                                  valid packed arrangement (i.e. its cells are not a permutation
+   *                                  of the values 0 to <code>size<sup>2</sup> - 1</code>, or its
+   *                                  unused high-order bits are not zero).
+   */
+  public static boolean isSolvable(int size, long word) {
+    int numCells = size * size;
+    if (size < PackedState.MIN_SIZE || size > 4
+        || (numCells < 16 && (word >>> (numCells << 2)) != 0)) {
+      throw new IllegalArgumentException();
+    }
+    int seen = 0;
+    for (int position = 0; position < numCells; position++) {
+      int number = (int) ((word >>> (position << 2)) & 0xF);
+      if (number >= numCells || (seen & (1 << number)) != 0) {
+        throw new IllegalArgumentException();
+      }
+      seen |= 1 << number;
+    }
+    int visited = 0;
+    int transpositions = 0;
+    int blankDistance = 0;
+    for (int start = 0; start < numCells; start++) {
+      if ((visited & (1 << start)) == 0) {
+        int position = start;
+        do {
+          visited |= 1 << position;
+          int number = (int) ((word >>> (position << 2)) & 0xF);
+          if (number == numCells - 1) {
+            blankDistance = (size - 1 - position / size) + (size - 1 - position % size);
+          }
+          position = number;
+          transpositions++;
+        } while (position != start);
+        transpositions--;
+      }
+    }
+    return ((transpositions + blankDistance) & 1) == 0;
+  }
+
+  /**
+   * Checks the solvability of each of the specified arrangements.
+   *
+   * @param arrangements tile arrangements to check.
+   * @return solvability flags, in the same order as {@code arrangements}.
+   * @throws IllegalArgumentException if any of {@code arrangements} is not a valid arrangement.
+   */
+  public static boolean[] isSolvable(List<? extends Arrangement> arrangements) {
+    boolean[] results = new boolean[arrangements.size()];
+    range(results.length).forEach((i) -> results[i] = isSolvable(arrangements.get(i)));
+    return results;
+  }
+
+  /**
+   * Checks the solvability of each of the specified single-word packed arrangements.
+   *
+   * @param size  height and width of puzzle; must be no more than 4.
+   * @param words packed arrangements.
+   * @return solvability flags, in the same order as {@code words}.
+   * @throws IllegalArgumentException if {@code size} is not supported, or any of {@code words} is
+   *                                  not a valid packed arrangement.
+   */
+  public static boolean[] isSolvable(int size, long[] words) {
+    boolean[] results = new boolean[words.length];
+    range(results.length).forEach((i) -> results[i] = isSolvable(size, words[i]));
+    return results;
+  }
+
+  private static IntStream range(int count) {
+    IntStream range = IntStream.range(0, count);
+    return (count >= PARALLEL_THRESHOLD) ? range.parallel() : range;
+  }
+
+}
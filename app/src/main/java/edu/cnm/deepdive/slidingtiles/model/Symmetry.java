@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+/**
+ * Canonicalizes tile arrangements under the reflection symmetry of the sliding tile puzzle. The
+ * goal arrangement is symmetric about the main diagonal: transposing the board (so that the tile at
+ * row <em>r</em>, column <em>c</em> moves to row <em>c</em>, column <em>r</em>) and renumbering
+ * each tile with the number of the transposed home position maps the goal onto itself, and maps
+ * every solution of an arrangement to a solution (of the same length) of the reflected arrangement.
+ * Thus, distances and solutions need only be stored for one of each reflected pair&mdash;the
+ * <em>canonical</em> representative, which is the lesser of the two under {@link
+ * PackedState#compareTo(PackedState)}.
+ * <p>
+ * Since a reflection maps positions to positions, a solution stored for a canonical arrangement can
+ * be applied to the reflected arrangement by reflecting each move's positions with {@link
+ * #reflect(int, int)}.
+ * </p>
+ */
+public final class Symmetry {
+
+  private Symmetry() {
+  }
+
+  /**
+   * Returns the position (or tile number) that is the reflection of the specified position (or tile
+   * number) about the main diagonal.
+   *
+   * @param size     height and width of puzzle.
+   * @param position row-major position or tile number.
+   * @return reflected position or tile number.
+   */
+  public static int reflect(int size, int position) {
+    return (position % size) * size + position / size;
+  }
+
+  /**
+   * Returns the reflection of the specified arrangement about the main diagonal.
+   *
+   * @param arrangement arrangement to reflect.
+   * @return reflected arrangement.
+   */
+  public static PackedState reflect(Arrangement arrangement) {
+    int size = arrangement.getSize();
+    int[] cells = new int[size * size];
+    for (int position = 0; position < cells.length; position++) {
+      cells[reflect(size, position)] = reflect(size, arrangement.getTileNumber(position));
+    }
+    return new PackedState(size, cells);
+  }
+
+  /**
+   * Returns the reflection of the specified single-word packed arrangement (see {@link
+   * PackedState#toLong()}) about the main diagonal.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @param word packed arrangement.
+   * @return reflected packed arrangement.
+   */
+  public static long reflect(int size, long word) {
+    int numCells = size * size;
+    long reflected = 0;
+    for (int position = 0; position < numCells; position++) {
+      int number = (int) ((word >>> (position << 2)) & 0xF);
+      reflected |= (long) reflect(size, number) << (reflect(size, position) << 2);
+    }
+    return reflected;
+  }
+
+  /**
+   * Returns the canonical representative of the specified arrangement and its reflection.
+   *
+   * @param arrangement arrangement to canonicalize.
+   * @return canonical arrangement.
+   */
+  public static PackedState canonical(Arrangement arrangement) {
+    PackedState state = new PackedState(arrangement);
+    PackedState reflected = reflect(state);
+    return (reflected.compareTo(state) < 0) ? reflected : state;
+  }
+
+  /**
+   * Returns the canonical representative of the specified single-word packed arrangement and its
+   * reflection.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @param word packed arrangement.
+   * @return canonical packed arrangement.
+   */
+  public static long canonical(int size, long word) {
+    long reflected = reflect(size, word);
+    return (Long.compareUnsigned(reflected, word) < 0) ? reflected : word;
+  }
+
+  /**
+   * Returns {@code true} if the specified arrangement is not its own canonical representative
+   * (i.e. if lookups for it use the reflected arrangement, and any stored moves must be reflected).
+   *
+   * @param arrangement arrangement to test.
+   * @return flag indicating whether the canonical representative is the reflection.
+   */
+  public static boolean isReflected(Arrangement arrangement) {
+    PackedState state = new PackedState(arrangement);
+    return reflect(state).compareTo(state) < 0;
+  }
+
+  /**
+   * Returns the canonical 64-bit key of the specified arrangement: the lesser (compared as unsigned
+   * values) of the {@link Zobrist} keys of the arrangement and its reflection. An arrangement and
+   * its reflection have the same canonical key. (Note that this is not necessarily the key of the
+   * arrangement returned by {@link #canonical(Arrangement)}.)
+   *
+   * @param arrangement arrangement to key.
+   * @return canonical key.
+   * @see Puzzle#getCanonicalKey()
+   */
+  public static long canonicalKey(Arrangement arrangement) {
+    PackedState state = new PackedState(arrangement);
+    return canonicalKey(Zobrist.key(state), Zobrist.key(reflect(state)));
+  }
+
+  /**
+   * Returns the canonical key corresponding to the specified pair of keys of an arrangement and its
+   * reflection.
+   *
+   * @param key          {@link Zobrist} key of an arrangement.
+   * @param reflectedKey {@link Zobrist} key of the reflection of the arrangement.
+   * @return canonical key.
+   */
+  public static long canonicalKey(long key, long reflectedKey) {
+    return (Long.compareUnsigned(reflectedKey, key) < 0) ? reflectedKey : key;
+  }
+
+  /**
+   * Returns the {@link Ranking rank} of the canonical representative of the specified arrangement,
+   * which must have no more than {@value Ranking#MAX_LONG_CELLS} cells. An arrangement and its
+   * reflection have the same canonical rank.
+   *
+   * @param arrangement arrangement to rank.
+   * @return canonical rank.
+   */
+  public static long canonicalRank(Arrangement arrangement) {
+    return Ranking.rank(canonical(arrangement));
+  }
+
+}
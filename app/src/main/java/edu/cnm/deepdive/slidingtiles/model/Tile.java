@@ -15,8 +15,6 @@
  */
 package edu.cnm.deepdive.slidingtiles.model;
 
-import java.util.Objects;
-
 /**
  * Implements a simple tile in a sliding tile puzzle. Since, regardless of the view, each tile has a
  * fixed "home" position, it can be represented by a number that unambiguously corresponds to that
@@ -24,9 +22,22 @@ import java.util.Objects;
  * 0 to 14), starting at the upper-left and moving across each row, then moving down to each
  * successive row. This implementations assumes such a representation&mdash;or at least, that each
  * tile (and its home position) can be uniquely identified by an integer.
+ * <p>
+ * Since a tile is fully described by its number, a single canonical instance per number is shared
+ * by all puzzles; these are obtained with {@link #valueOf(int)}.
+ * </p>
  */
 public class Tile {
 
+  private static final Tile[] CACHE =
+      new Tile[PackedState.MAX_SIZE * PackedState.MAX_SIZE - 1];
+
+  static {
+    for (int number = 0; number < CACHE.length; number++) {
+      CACHE[number] = new Tile(number);
+    }
+  }
+
   private final int number;
 
   /**
@@ -38,6 +49,16 @@ public class Tile {
     this.number = number;
   }
 
+  /**
+   * Returns the canonical {@code Tile} instance with the stated numeric value.
+   *
+   * @param number value of the tile, corresponding to its home position.
+   * @return shared {@code Tile} instance.
+   */
+  public static Tile valueOf(int number) {
+    return (number >= 0 && number < CACHE.length) ? CACHE[number] : new Tile(number);
+  }
+
   @Override
   public boolean equals(Object obj) {
     boolean comparison = false;
@@ -51,7 +72,7 @@ public class Tile {
 
   @Override
   public int hashCode() {
-    return Objects.hash(number);
+    return number;
   }
 
   /**
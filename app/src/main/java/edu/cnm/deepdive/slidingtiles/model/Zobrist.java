@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Computes 64-bit <a href="https://en.wikipedia.org/wiki/Zobrist_hashing">Zobrist</a> keys of tile
+ * arrangements. The key of an arrangement is the XOR of one random value for each (tile, cell)
+ * pair present in the arrangement (with the empty space treated as tile <code>size<sup>2</sup> -
+ * 1</code>), so moving a single tile changes the key by a value that can be computed in constant
+ * time, regardless of puzzle size.
+ * <p>
+ * The random values are generated from a fixed seed, so keys are stable across runs and processes,
+ * and may be persisted (e.g. in caches or transposition tables).
+ * </p>
+ */
+public final class Zobrist {
+
+  private static final long SEED = 0x5D1D1A6E7115L;
+  private static final long[][] TABLES = new long[PackedState.MAX_SIZE + 1][];
+
+  static {
+    for (int size = PackedState.MIN_SIZE; size <= PackedState.MAX_SIZE; size++) {
+      SplittableRandom rng = new SplittableRandom(SEED + size);
+      long[] table = new long[size * size * size * size];
+      for (int i = 0; i < table.length; i++) {
+        table[i] = rng.nextLong();
+      }
+      TABLES[size] = table;
+    }
+  }
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns the random value assigned to the specified tile occupying the specified cell.
+   *
+   * @param size     height and width of puzzle.
+   * @param number   tile number (<code>size<sup>2</sup> - 1</code> for the empty space).
+   * @param position cell index ({@code row * size + col}).
+   * @return component of arrangement key.
+   */
+  public static long get(int size, int number, int position) {
+    return TABLES[size][number * size * size + position];
+  }
+
+  /**
+   * Computes the key of the specified arrangement from scratch.
+   *
+   * @param state packed arrangement.
+   * @return 64-bit arrangement key.
+   */
+  public static long key(PackedState state) {
+    int size = state.getSize();
+    long[] table = TABLES[size];
+    int numCells = size * size;
+    long key = 0;
+    for (int position = 0; position < numCells; position++) {
+      key ^= table[state.get(position) * numCells + position];
+    }
+    return key;
+  }
+
+  /**
+   * Returns the value that must be XORed with the key of an arrangement to obtain the key of the
+   * arrangement resulting from moving the specified tile into the adjacent empty space.
+   *
+   * @param size   height and width of puzzle.
+   * @param number number of tile being moved.
+   * @param from   position of tile before the move (i.e. position of empty space after the move).
+   * @param to     position of tile after the move (i.e. position of empty space before the move).
+   * @return key delta.
+   */
+  public static long delta(int size, int number, int from, int to) {
+    long[] table = TABLES[size];
+    int numCells = size * size;
+    int tileBase = number * numCells;
+    int blankBase = (numCells - 1) * numCells;
+    return table[tileBase + from] ^ table[tileBase + to]
+        ^ table[blankBase + from] ^ table[blankBase + to];
+  }
+
+  /**
+   * Folds a 64-bit key into a 32-bit hash code.
+   *
+   * @param key 64-bit arrangement key.
+   * @return 32-bit hash code.
+   */
+  public static int fold(long key) {
+    return (int) (key ^ (key >>> 32));
+  }
+
+}
@@ -15,24 +15,25 @@
  */
 package edu.cnm.deepdive.slidingtiles.model.metric;
 
-import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
 
 /**
- * TODO Write Javadoc comment.
+ * Base class for {@link Measure} implementations, comparing arrangements by their measures.
  *
  * @author Nicholas Bennett, Chris Hughes
  */
 public abstract class BaseMeasure implements Measure {
 
   /**
-   * TODO Write Javadoc comment.
+   * Compares two arrangements by their measures.
    *
-   * @param p1
-   * @param p2
-   * @return
+   * @param p1 first arrangement.
+   * @param p2 second arrangement.
+   * @return negative, zero, or positive, as the measure of {@code p1} is less than, equal to, or
+   * greater than that of {@code p2}.
    */
   @Override
-  public int compare(Puzzle p1, Puzzle p2) {
+  public int compare(Arrangement p1, Arrangement p2) {
     return Integer.compare(getMeasure(p1), getMeasure(p2));
   }
 
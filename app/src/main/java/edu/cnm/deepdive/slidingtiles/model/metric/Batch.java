@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.PackedView;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates a {@link Measure} over batches of arrangements. Batches are divided into fixed-size
+ * chunks; each chunk is measured by a tight sequential loop, reusing a single mutable view of the
+ * packed states it reads, and the chunks themselves are distributed across the common fork-join
+ * pool (by the splitting of a parallel {@link IntStream} range) when the batch is large enough to
+ * benefit.
+ */
+final class Batch {
+
+  static final int PARALLEL_THRESHOLD = 1024;
+  static final int CHUNK_SIZE = 256;
+
+  private Batch() {
+  }
+
+  static void measure(Measure measure, int size, IntToLongFunction words, int count,
+      int[] scores) {
+    if (size < 2 || size > 4 || scores.length < count) {
+      throw new IllegalArgumentException();
+    }
+    chunks(count, (start, end) -> {
+      PackedView view = new PackedView(size);
+      for (int i = start; i < end; i++) {
+        scores[i] = measure.getMeasure(view.set(words.applyAsLong(i)));
+      }
+    });
+  }
+
+  static void measure(Measure measure, List<? extends Arrangement> arrangements, int[] scores) {
+    int count = arrangements.size();
+    if (scores.length < count) {
+      throw new IllegalArgumentException();
+    }
+    chunks(count, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        scores[i] = measure.getMeasure(arrangements.get(i));
+      }
+    });
+  }
+
+  static void chunks(int count, ChunkConsumer consumer) {
+    if (count < PARALLEL_THRESHOLD) {
+      consumer.accept(0, count);
+    } else {
+      IntConsumer task = (chunk) -> {
+        int start = chunk * CHUNK_SIZE;
+        consumer.accept(start, Math.min(count, start + CHUNK_SIZE));
+      };
+      IntStream.range(0, (count + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(task);
+    }
+  }
+
+  @FunctionalInterface
+  interface ChunkConsumer {
+
+    void accept(int start, int end);
+
+  }
+
+}
@@ -0,0 +1,230 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.Zobrist;
+import java.util.Arrays;
+
+/**
+ * Decorates a {@link Measure}, memoizing its values in a bounded cache keyed by the 64-bit {@link
+ * Zobrist} key of each arrangement (which a {@link Puzzle} maintains incrementally, so a lookup for
+ * a puzzle requires no scan of its tiles). This is worthwhile for expensive measures (e.g. {@link
+ * PatternDatabase} or {@link LinearConflict}) evaluated repeatedly on the same arrangements, as
+ * when a player moves back and forth between positions, or when hints are recomputed.
+ * <p>
+ * The cache is a fixed-size table, allocated once on construction. Each key hashes to a short
+ * window of slots; when every slot in the window is occupied, a victim is chosen by the CLOCK
+ * algorithm: each window has its own hand, which resumes sweeping around the window from where the
+ * previous eviction left it, giving a second chance to slots that have been read since the hand
+ * last passed over them. Recently used values thus tend to survive, and no slot is favored by its
+ * position in the window, without any per-access bookkeeping beyond setting a flag. Counts of hits,
+ * misses, and evictions are maintained for tuning the capacity.
+ * </p>
+ * <p>
+ * Distinct arrangements are assumed to have distinct keys; since keys are 64 bits wide, the
+ * probability of a collision is negligible. Instances are safe for use by multiple threads.
+ * </p>
+ */
+public class CachedMeasure extends BaseMeasure {
+
+  private static final int WINDOW = 8;
+  private static final byte OCCUPIED = 1;
+  private static final byte REFERENCED = 2;
+
+  private final Measure delegate;
+  private final long[] keys;
+  private final int[] values;
+  private final byte[] flags;
+  private final byte[] hands;
+  private final int mask;
+  private int count;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Initializes this instance as a cache of the specified measure, with room for at least the
+   * specified number of values.
+   *
+   * @param delegate measure whose values will be cached.
+   * @param capacity minimum number of cached values; rounded up to a power of 2.
+   * @throws IllegalArgumentException if {@code capacity} is not positive, or exceeds
+   *                                  2<sup>30</sup>.
+   */
+  public CachedMeasure(Measure delegate, int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException();
+    }
+    int length = Math.max(WINDOW, Integer.highestOneBit(capacity - 1) << 1);
+    this.delegate = delegate;
+    keys = new long[length];
+    values = new int[length];
+    flags = new byte[length];
+    hands = new byte[length];
+    mask = length - 1;
+  }
+
+  @Override
+  public int getMeasure(Arrangement arrangement) {
+    long key = keyOf(arrangement);
+    synchronized (this) {
+      int slot = find(key);
+      if (slot >= 0) {
+        return values[slot];
+      }
+    }
+    int value = delegate.getMeasure(arrangement);
+    store(key, value);
+    return value;
+  }
+
+  @Override
+  public int update(Arrangement arrangement, int previous, int move) {
+    long key = keyOf(arrangement);
+    synchronized (this) {
+      int slot = find(key);
+      if (slot >= 0) {
+        return values[slot];
+      }
+    }
+    int value = delegate.update(arrangement, previous, move);
+    store(key, value);
+    return value;
+  }
+
+  /**
+   * Returns the measure whose values are cached by this instance.
+   */
+  public Measure getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * Returns the maximum number of values held by this cache.
+   */
+  public int getCapacity() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the number of values currently held by this cache.
+   */
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the number of lookups satisfied from this cache.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that required evaluation of the underlying measure.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of values that have been evicted from this cache to make room for others.
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Removes all values from this cache, and resets the counters.
+   */
+  public synchronized void clear() {
+    Arrays.fill(flags, (byte) 0);
+    Arrays.fill(hands, (byte) 0);
+    count = 0;
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  private int find(long key) {
+    int start = index(key);
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (start + i) & mask;
+      if ((flags[slot] & OCCUPIED) != 0 && keys[slot] == key) {
+        flags[slot] |= REFERENCED;
+        hits++;
+        return slot;
+      }
+    }
+    misses++;
+    return -1;
+  }
+
+  private synchronized void store(long key, int value) {
+    int start = index(key);
+    int victim = -1;
+    for (int i = 0; i < WINDOW && victim < 0; i++) {
+      int slot = (start + i) & mask;
+      if ((flags[slot] & OCCUPIED) == 0) {
+        victim = slot;
+        count++;
+      } else if (keys[slot] == key) {
+        return;
+      }
+    }
+    if (victim < 0) {
+      int hand = hands[start];
+      do {
+        int slot = (start + hand) & mask;
+        hand = (hand + 1) % WINDOW;
+        if ((flags[slot] & REFERENCED) != 0) {
+          flags[slot] &= ~REFERENCED;
+        } else {
+          victim = slot;
+        }
+      } while (victim < 0);
+      hands[start] = (byte) hand;
+      evictions++;
+    }
+    keys[victim] = key;
+    values[victim] = value;
+    flags[victim] = OCCUPIED;
+  }
+
+  private int index(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+
+  private static long keyOf(Arrangement arrangement) {
+    if (arrangement instanceof Puzzle) {
+      return ((Puzzle) arrangement).getKey();
+    }
+    if (arrangement instanceof PackedState) {
+      return Zobrist.key((PackedState) arrangement);
+    }
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    long key = 0;
+    for (int position = 0; position < numCells; position++) {
+      key ^= Zobrist.get(size, arrangement.getTileNumber(position), position);
+    }
+    return key;
+  }
+
+}
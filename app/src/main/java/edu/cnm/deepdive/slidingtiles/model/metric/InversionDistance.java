@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+
+/**
+ * Measures an arrangement by its <em>inversion distance</em>. Reading the tiles (excluding the
+ * empty space) in row-major order, a horizontal move leaves the sequence unchanged, while a
+ * vertical move carries one tile past <code>size - 1</code> others, changing the number of
+ * inversions (pairs of tiles out of order) by at most <code>size - 1</code>, and by an amount with
+ * the same parity as <code>size - 1</code>. With <i>v</i> vertical inversions, at least
+ * <code>ceil(v / (size - 1))</code> vertical moves are therefore required; when <code>size -
+ * 1</code> is odd, each move also flips the parity of <i>v</i>, so this bound is rounded up to the
+ * parity of <i>v</i>. (For the 4&times;4 puzzle, this is equal to <code>v / 3 + v % 3</code>.) The
+ * same reasoning, applied to the column-major sequence (with tiles ordered by their column-major
+ * home positions), bounds the number of horizontal moves. The sum of the two bounds is an
+ * admissible estimate, which complements {@link ManhattanDistance} (it is strongest when tiles are
+ * out of order within rows or columns), and requires no precomputed tables at any size.
+ * <p>
+ * Inversion counts are computed from scratch in a single pass over the cells, without allocation:
+ * the ranks of the tiles already read are recorded as bits of a {@code long} (which suffices for
+ * every size up to {@link PackedState#MAX_SIZE}), so the number of them below the rank of the next
+ * tile is a single {@link Long#bitCount(long)}. (Larger arrangements fall back to a Fenwick tree.)
+ * A caller that keeps the vertical and horizontal counts (e.g. a
+ * solver) can update them after each move with {@link #updateVertical(Arrangement, int, int)} and
+ * {@link #updateHorizontal(Arrangement, int, int)}, which examine only the <code>size - 1</code>
+ * tiles passed over by the moved tile, and combine them with {@link #getDistance(int, int, int)}.
+ * (The counts cannot be recovered from a previous distance, so {@link #update(Arrangement, int,
+ * int)} is not specialized; it recomputes the counts from scratch.)
+ * </p>
+ */
+public class InversionDistance extends BaseMeasure {
+
+  @Override
+  public int getMeasure(Arrangement arrangement) {
+    return getDistance(arrangement.getSize(),
+        getVerticalInversions(arrangement), getHorizontalInversions(arrangement));
+  }
+
+  /**
+   * Returns the number of inversions in the row-major sequence of tiles in the specified
+   * arrangement.
+   *
+   * @param arrangement tile arrangement.
+   * @return vertical inversion count.
+   */
+  public int getVerticalInversions(Arrangement arrangement) {
+    return inversions(arrangement, false);
+  }
+
+  /**
+   * Returns the number of inversions in the column-major sequence of tiles in the specified
+   * arrangement, with tiles ordered by their column-major home positions.
+   *
+   * @param arrangement tile arrangement.
+   * @return horizontal inversion count.
+   */
+  public int getHorizontalInversions(Arrangement arrangement) {
+    return inversions(arrangement, true);
+  }
+
+  /**
+   * Returns the vertical inversion count of an arrangement after a single-tile move, given the
+   * count before the move. A horizontal move leaves the count unchanged.
+   *
+   * @param arrangement tile arrangement, <em>after</em> the move.
+   * @param inversions  vertical inversion count before the move.
+   * @param move        packed move (see {@link Move#pack(int, int)}).
+   * @return vertical inversion count of {@code arrangement}.
+   */
+  public int updateVertical(Arrangement arrangement, int inversions, int move) {
+    int size = arrangement.getSize();
+    int from = Move.from(move);
+    int to = Move.to(move);
+    return (Math.abs(from - to) == size)
+        ? inversions + delta(arrangement, false, from, to)
+        : inversions;
+  }
+
+  /**
+   * Returns the horizontal inversion count of an arrangement after a single-tile move, given the
+   * count before the move. A vertical move leaves the count unchanged.
+   *
+   * @param arrangement tile arrangement, <em>after</em> the move.
+   * @param inversions  horizontal inversion count before the move.
+   * @param move        packed move (see {@link Move#pack(int, int)}).
+   * @return horizontal inversion count of {@code arrangement}.
+   */
+  public int updateHorizontal(Arrangement arrangement, int inversions, int move) {
+    int size = arrangement.getSize();
+    int from = Move.from(move);
+    int to = Move.to(move);
+    return (Math.abs(from - to) == 1)
+        ? inversions + delta(arrangement, true, transpose(size, from), transpose(size, to))
+        : inversions;
+  }
+
+  /**
+   * Returns the inversion distance corresponding to the specified inversion counts.
+   *
+   * @param size       height and width of puzzle.
+   * @param vertical   vertical inversion count.
+   * @param horizontal horizontal inversion count.
+   * @return lower bound on the number of moves required to solve the puzzle.
+   */
+  public int getDistance(int size, int vertical, int horizontal) {
+    return moves(size - 1, vertical) + moves(size - 1, horizontal);
+  }
+
+  private static int moves(int span, int inversions) {
+    int moves = (inversions + span - 1) / span;
+    if ((span & 1) != 0 && ((moves ^ inversions) & 1) != 0) {
+      moves++;
+    }
+    return moves;
+  }
+
+  private static int inversions(Arrangement arrangement, boolean columns) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    if (numCells > Long.SIZE) {
+      return fenwickInversions(arrangement, columns);
+    }
+    long seen = 0;
+    int inversions = 0;
+    int count = 0;
+    for (int index = 0; index < numCells; index++) {
+      int number = arrangement.getTileNumber(columns ? transpose(size, index) : index);
+      if (number != numCells - 1) {
+        int rank = columns ? transpose(size, number) : number;
+        inversions += count - Long.bitCount(seen & ((1L << rank) - 1));
+        seen |= 1L << rank;
+        count++;
+      }
+    }
+    return inversions;
+  }
+
+  private static int fenwickInversions(Arrangement arrangement, boolean columns) {
+    int size = arrangement.getSize();
+    int numCells = size * size;
+    int[] tree = new int[numCells];
+    int inversions = 0;
+    int count = 0;
+    for (int index = 0; index < numCells; index++) {
+      int number = arrangement.getTileNumber(columns ? transpose(size, index) : index);
+      if (number != numCells - 1) {
+        int rank = columns ? transpose(size, number) : number;
+        int preceding = 0;
+        for (int i = rank + 1; i > 0; i -= i & -i) {
+          preceding += tree[i - 1];
+        }
+        inversions += count - preceding;
+        for (int i = rank + 1; i <= numCells; i += i & -i) {
+          tree[i - 1]++;
+        }
+        count++;
+      }
+    }
+    return inversions;
+  }
+
+  private static int delta(Arrangement arrangement, boolean columns, int from, int to) {
+    int size = arrangement.getSize();
+    int number = arrangement.getTileNumber(columns ? transpose(size, to) : to);
+    int rank = columns ? transpose(size, number) : number;
+    int low = Math.min(from, to);
+    int high = Math.max(from, to);
+    int delta = 0;
+    for (int index = low + 1; index < high; index++) {
+      int other = arrangement.getTileNumber(columns ? transpose(size, index) : index);
+      int otherRank = columns ? transpose(size, other) : other;
+      delta += (otherRank < rank) ? 1 : -1;
+    }
+    return (to < from) ? delta : -delta;
+  }
+
+  private static int transpose(int size, int index) {
+    return (index % size) * size + index / size;
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+
+/**
+ * Measures an arrangement by its Manhattan distance, plus a penalty for <em>linear conflicts</em>.
+ * Two tiles are in linear conflict if both are in their home row (or column), but in the reverse of
+ * their home order; at least one of them must then leave the line and return, adding 2 moves to the
+ * Manhattan distance. For each row and column, the penalty is 2 for each tile that must leave the
+ * line&mdash;that is, the number of tiles in their home line, minus the length of the longest
+ * subsequence of those tiles already in home order. This is an admissible estimate that dominates
+ * {@link ManhattanDistance}.
+ * <p>
+ * A single-tile move only changes the conflicts in the two lines the tile leaves and enters
+ * (columns, for a horizontal move; rows, for a vertical move), so {@link #update(Arrangement, int,
+ * int)} recomputes only those two lines, before and after the move.
+ * </p>
+ */
+public class LinearConflict extends BaseMeasure {
+
+  private static final int LENGTH_BITS = 4;
+  private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+
+  private final ManhattanDistance manhattan = new ManhattanDistance();
+
+  @Override
+  public int getMeasure(Arrangement arrangement) {
+    int size = arrangement.getSize();
+    int measure = manhattan.getMeasure(arrangement);
+    for (int line = 0; line < size; line++) {
+      measure += 2 * (conflicts(arrangement, false, line, -1, -1, -1)
+          + conflicts(arrangement, true, line, -1, -1, -1));
+    }
+    return measure;
+  }
+
+  @Override
+  public int update(Arrangement arrangement, int previous, int move) {
+    int size = arrangement.getSize();
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int tileNumber = arrangement.getTileNumber(to);
+    boolean column = (from / size == to / size);
+    int fromLine = column ? from % size : from / size;
+    int toLine = column ? to % size : to / size;
+    int delta = conflicts(arrangement, column, fromLine, -1, -1, -1)
+        + conflicts(arrangement, column, toLine, -1, -1, -1)
+        - conflicts(arrangement, column, fromLine, from, tileNumber, to)
+        - conflicts(arrangement, column, toLine, from, tileNumber, to);
+    return previous + ManhattanDistance.distance(size, tileNumber, to)
+        - ManhattanDistance.distance(size, tileNumber, from) + 2 * delta;
+  }
+
+  /**
+   * Returns the number of tiles that must leave the specified row or column to resolve its linear
+   * conflicts. The contents of the line are read from {@code arrangement}, except that (if {@code
+   * tilePosition} is non-negative) the tile {@code tileNumber} is read at {@code tilePosition} and
+   * the empty space is read at {@code blankPosition}; this allows the line to be evaluated as it
+   * was before the most recent move.
+   */
+  private static int conflicts(Arrangement arrangement, boolean column, int line,
+      int tilePosition, int tileNumber, int blankPosition) {
+    int size = arrangement.getSize();
+    int blank = size * size - 1;
+    int start = column ? line : line * size;
+    int stride = column ? size : 1;
+    long lengths = 0;
+    int count = 0;
+    int longest = 0;
+    for (int i = 0, position = start; i < size; i++, position += stride) {
+      int number;
+      if (position == tilePosition) {
+        number = tileNumber;
+      } else if (position == blankPosition) {
+        number = blank;
+      } else {
+        number = arrangement.getTileNumber(position);
+      }
+      if (number != blank && (column ? number % size : number / size) == line) {
+        int order = column ? number / size : number % size;
+        int length = 1;
+        for (int j = 0; j < count; j++) {
+          int previous = (int) (lengths >>> (2 * j * LENGTH_BITS)) & LENGTH_MASK;
+          int previousOrder = (int) (lengths >>> ((2 * j + 1) * LENGTH_BITS)) & LENGTH_MASK;
+          if (previousOrder < order && previous + 1 > length) {
+            length = previous + 1;
+          }
+        }
+        lengths |= ((long) length << (2 * count * LENGTH_BITS))
+            | ((long) order << ((2 * count + 1) * LENGTH_BITS));
+        count++;
+        longest = Math.max(longest, length);
+      }
+    }
+    return count - longest;
+  }
+
+}
@@ -15,39 +15,66 @@
  */
 package edu.cnm.deepdive.slidingtiles.model.metric;
 
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
 import edu.cnm.deepdive.slidingtiles.model.Puzzle;
-import edu.cnm.deepdive.slidingtiles.model.Tile;
 
 /**
- * TODO Write Javadoc comment.
+ * Measures an arrangement by the sum of the horizontal and vertical distances of the tiles from
+ * their home positions. This is an admissible estimate of the number of moves required to solve the
+ * puzzle. A single-tile move changes this measure by exactly 1 (up or down).
  *
  * @author Nicholas Bennett, Chris Hughes
  */
 public class ManhattanDistance extends BaseMeasure {
 
-  /**
-   * TODO Write Javadoc comment.
-   *
-   * @param puzzle
-   * @return
-   */
   @Override
-  public int getMeasure(Puzzle puzzle) {
-    Tile[][] tiles = puzzle.getTiles();
-    int size = puzzle.getSize();
+  public int getMeasure(Arrangement arrangement) {
+    if (arrangement instanceof Puzzle) {
+      return ((Puzzle) arrangement).getManhattanDistance();
+    }
+    int size = arrangement.getSize();
+    int numCells = size * size;
     int measure = 0;
-    for (int row = 0; row < size; row++) {
-      for (int col = 0; col < size; col++) {
-        Tile tile = tiles[row][col];
-        if (tile != null) {
-          int tileNumber = tiles[row][col].getNumber();
-          int homeRow = tileNumber / size;
-          int homeCol = tileNumber % size;
-          measure += Math.abs(row - homeRow) + Math.abs(col - homeCol);
-        }
+    for (int position = 0; position < numCells; position++) {
+      int tileNumber = arrangement.getTileNumber(position);
+      if (tileNumber != numCells - 1) {
+        measure += distance(size, tileNumber, position);
       }
     }
     return measure;
   }
 
+  @Override
+  public int update(Arrangement arrangement, int previous, int move) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int tileNumber = arrangement.getTileNumber(to);
+    int size = arrangement.getSize();
+    return previous + distance(size, tileNumber, to) - distance(size, tileNumber, from);
+  }
+
+  @Override
+  public void getMeasures(int size, long[] words, int[] scores) {
+    if (size == 4) {
+      PackedKernel.manhattan(words, scores);
+    } else {
+      super.getMeasures(size, words, scores);
+    }
+  }
+
+  /**
+   * Returns the Manhattan distance of the specified tile, in the specified position, from its home
+   * position.
+   *
+   * @param size       height and width of puzzle.
+   * @param tileNumber number of tile.
+   * @param position   row-major position of tile.
+   * @return horizontal plus vertical distance from home.
+   */
+  static int distance(int size, int tileNumber, int position) {
+    return Math.abs(position / size - tileNumber / size)
+        + Math.abs(position % size - tileNumber % size);
+  }
+
 }
@@ -15,21 +15,93 @@
  */
 package edu.cnm.deepdive.slidingtiles.model.metric;
 
-import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import java.nio.LongBuffer;
 import java.util.Comparator;
+import java.util.List;
 
 /**
- * TODO Write Javadoc comment.
+ * Computes an integer-valued measure of a tile arrangement (e.g. a distance estimate used as a
+ * progress indicator, or as a search heuristic). Since arrangements are compared by their measures,
+ * every {@code Measure} is also a {@link Comparator}.
+ * <p>
+ * In addition to computing the measure of an arrangement from scratch, a {@code Measure} can update
+ * a previously computed value after a single-tile move, with {@link #update(Arrangement, int,
+ * int)}. The default implementation simply recomputes the measure; implementations whose value
+ * changes only locally override it to run in constant time.
+ * </p>
+ * <p>
+ * Measures can also be evaluated in bulk, over arrays or buffers of packed states, or lists of
+ * arrangements, filling an array of scores. Small batches are measured in a single sequential loop;
+ * large batches are divided into chunks that are measured in parallel.
+ * </p>
+ *
  * @author Nicholas Bennett, Chris Hughes
  */
-public interface Measure extends Comparator<Puzzle> {
+public interface Measure extends Comparator<Arrangement> {
+
+  /**
+   * Computes and returns the measure of the specified arrangement.
+   *
+   * @param arrangement tile arrangement to measure.
+   * @return measure of {@code arrangement}.
+   */
+  int getMeasure(Arrangement arrangement);
+
+  /**
+   * Returns the measure of an arrangement after a single-tile move, given its measure before the
+   * move.
+   *
+   * @param arrangement tile arrangement, <em>after</em> the move.
+   * @param previous    measure of the arrangement before the move.
+   * @param move        packed move (see {@link Move#pack(int, int)}).
+   * @return measure of {@code arrangement}.
+   */
+  default int update(Arrangement arrangement, int previous, int move) {
+    return getMeasure(arrangement);
+  }
+
+  /**
+   * Computes the measures of the specified single-word packed states (see {@link
+   * PackedState#toLong()}), storing them in {@code scores}.
+   *
+   * @param size   height and width of puzzle; must be no more than 4.
+   * @param words  packed states.
+   * @param scores destination for measures, in the same order as {@code words}.
+   * @throws IllegalArgumentException if {@code size} is not supported, or {@code scores} is too
+   *                                  short.
+   */
+  default void getMeasures(int size, long[] words, int[] scores) {
+    Batch.measure(this, size, (i) -> words[i], words.length, scores);
+  }
+
+  /**
+   * Computes the measures of the single-word packed states (see {@link PackedState#toLong()})
+   * remaining in the specified buffer, storing them in {@code scores}. The position of the buffer
+   * is not changed.
+   *
+   * @param size   height and width of puzzle; must be no more than 4.
+   * @param words  packed states, from the current position to the limit of the buffer.
+   * @param scores destination for measures, in the same order as {@code words}.
+   * @throws IllegalArgumentException if {@code size} is not supported, or {@code scores} is too
+   *                                  short.
+   */
+  default void getMeasures(int size, LongBuffer words, int[] scores) {
+    int offset = words.position();
+    Batch.measure(this, size, (i) -> words.get(offset + i), words.remaining(), scores);
+  }
 
   /**
-   * TODO Write Javadoc comment.
+   * Computes the measures of the specified arrangements, storing them in {@code scores}.
    *
-   * @param puzzle
-   * @return
+   * @param arrangements tile arrangements to measure.
+   * @param scores       destination for measures, in the same order as {@code arrangements}.
+   * @throws IllegalArgumentException if {@code scores} is too short.
    */
-  int getMeasure(Puzzle puzzle);
+  default void getMeasures(List<? extends Arrangement> arrangements, int[] scores) {
+    Batch.measure(this, arrangements, scores);
+  }
 
 }
@@ -15,41 +15,46 @@
  */
 package edu.cnm.deepdive.slidingtiles.model.metric;
 
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
 import edu.cnm.deepdive.slidingtiles.model.Puzzle;
-import edu.cnm.deepdive.slidingtiles.model.Tile;
 
 /**
- * TODO Write Javadoc comment.
+ * Measures an arrangement by the number of tiles not in their home positions (AKA the Hamming
+ * distance). This is an admissible estimate of the number of moves required to solve the puzzle.
  *
  * @author Nicholas Bennett, Chris Hughes
  */
 public class OutOfPlace extends BaseMeasure {
 
-  /**
-   * TODO Write Javadoc comment.
-   *
-   * @param puzzle
-   * @return
-   */
   @Override
-  public int getMeasure(Puzzle puzzle) {
-    Tile[][] tiles = puzzle.getTiles();
-    int size = puzzle.getSize();
+  public int getMeasure(Arrangement arrangement) {
+    if (arrangement instanceof Puzzle) {
+      return ((Puzzle) arrangement).getMisplacedCount();
+    }
+    int size = arrangement.getSize();
+    int numCells = size * size;
     int measure = 0;
-    for (int row = 0; row < size; row++) {
-      for (int col = 0; col < size; col++) {
-        Tile tile = tiles[row][col];
-        if (tile != null) {
-          int tileNumber = tiles[row][col].getNumber();
-          int homeRow = tileNumber / size;
-          int homeCol = tileNumber % size;
-          if (row != homeRow || col != homeCol) {
-            measure++;
-          }
-        }
+    for (int position = 0; position < numCells; position++) {
+      int tileNumber = arrangement.getTileNumber(position);
+      if (tileNumber != position && tileNumber != numCells - 1) {
+        measure++;
       }
     }
     return measure;
   }
 
+  @Override
+  public int update(Arrangement arrangement, int previous, int move) {
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int tileNumber = arrangement.getTileNumber(to);
+    return previous + ((tileNumber == from) ? 1 : 0) - ((tileNumber == to) ? 1 : 0);
+  }
+
+  @Override
+  public void getMeasures(int size, long[] words, int[] scores) {
+    PackedKernel.misplaced(size, words, scores);
+  }
+
 }
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+
+/**
+ * Branch-free kernels that compute the Manhattan distance and misplaced-tile count of single-word
+ * packed states (see {@link PackedState#toLong()}), for bulk scoring. Each packed state is treated
+ * as a vector of 16 four-bit lanes, one per cell, and every step of the computation operates on all
+ * lanes at once, using ordinary {@code long} arithmetic (SIMD within a register); no per-cell loop
+ * or table lookup is performed. The batch methods read boards from a flat array of packed words,
+ * and distribute large batches across the common fork-join pool.
+ * <p>
+ * The Manhattan kernel applies to 4 X 4 puzzles, where the home row and column of a tile are simply
+ * its upper and lower pairs of bits; the misplaced-tile kernel applies to all single-word sizes.
+ * {@link ManhattanDistance}, {@link OutOfPlace}, and {@link InPlace} use these kernels for batches
+ * of supported sizes, and fall back to their scalar logic otherwise.
+ * </p>
+ */
+public final class PackedKernel {
+
+  private static final long LANES = 0x1111_1111_1111_1111L;
+  private static final long LOW_PAIRS = 0x3333_3333_3333_3333L;
+  private static final long BIAS = 0x4444_4444_4444_4444L;
+  private static final long EVEN_LANES = 0x0F0F_0F0F_0F0F_0F0FL;
+  private static final long BYTE_SUM = 0x0101_0101_0101_0101L;
+  private static final long POSITION_ROWS = 0x3333_2222_1111_0000L;
+  private static final long POSITION_COLUMNS = 0x3210_3210_3210_3210L;
+  private static final long[] SOLVED = new long[5];
+
+  static {
+    for (int size = PackedState.MIN_SIZE; size <= 4; size++) {
+      SOLVED[size] = new PackedState(size).toLong();
+    }
+  }
+
+  private PackedKernel() {
+  }
+
+  /**
+   * Returns the Manhattan distance of the specified 4 X 4 packed state.
+   *
+   * @param word packed state.
+   * @return sum of horizontal and vertical distances of tiles from their home positions.
+   */
+  public static int manhattan(long word) {
+    long distances = difference((word >>> 2) & LOW_PAIRS, POSITION_ROWS)
+        + difference(word & LOW_PAIRS, POSITION_COLUMNS);
+    long bytes = (distances & EVEN_LANES) + ((distances >>> 4) & EVEN_LANES);
+    int total = (int) ((bytes * BYTE_SUM) >>> 56);
+    long blankLane = word & (word >>> 1) & (word >>> 2) & (word >>> 3) & LANES;
+    int blank = Long.numberOfTrailingZeros(blankLane) >>> 2;
+    return total - (3 - (blank >>> 2)) - (3 - (blank & 3));
+  }
+
+  /**
+   * Returns the number of tiles (excluding the empty space) not in their home positions in the
+   * specified single-word packed state.
+   *
+   * @param size height and width of puzzle; must be no more than 4.
+   * @param word packed state.
+   * @return misplaced tile count.
+   */
+  public static int misplaced(int size, long word) {
+    int numCells = size * size;
+    long changed = word ^ SOLVED[size];
+    int count = Long.bitCount(
+        (changed | (changed >>> 1) | (changed >>> 2) | (changed >>> 3)) & LANES);
+    return (((changed >>> ((numCells - 1) << 2)) & 0xF) != 0) ? count - 1 : count;
+  }
+
+  /**
+   * Computes the Manhattan distances of the specified 4 X 4 packed states.
+   *
+   * @param words  packed states.
+   * @param scores destination for Manhattan distances, in the same order as {@code words}.
+   * @throws IllegalArgumentException if {@code scores} is too short.
+   */
+  public static void manhattan(long[] words, int[] scores) {
+    if (scores.length < words.length) {
+      throw new IllegalArgumentException();
+    }
+    Batch.chunks(words.length, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        scores[i] = manhattan(words[i]);
+      }
+    });
+  }
+
+  /**
+   * Computes the misplaced-tile counts of the specified single-word packed states.
+   *
+   * @param size   height and width of puzzle; must be no more than 4.
+   * @param words  packed states.
+   * @param scores destination for misplaced-tile counts, in the same order as {@code words}.
+   * @throws IllegalArgumentException if {@code size} is not supported, or {@code scores} is too
+   *                                  short.
+   */
+  public static void misplaced(int size, long[] words, int[] scores) {
+    if (size < PackedState.MIN_SIZE || size > 4 || scores.length < words.length) {
+      throw new IllegalArgumentException();
+    }
+    Batch.chunks(words.length, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        scores[i] = misplaced(size, words[i]);
+      }
+    });
+  }
+
+  private static long difference(long a, long b) {
+    long forward = (a | BIAS) - b;
+    long backward = (b | BIAS) - a;
+    long ascending = ((forward >>> 2) & LANES) * 0xF;
+    return (forward & ascending & LOW_PAIRS) | (backward & ~ascending & LOW_PAIRS);
+  }
+
+}
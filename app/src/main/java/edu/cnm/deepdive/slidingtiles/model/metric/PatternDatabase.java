@@ -0,0 +1,460 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Ranking;
+import edu.cnm.deepdive.slidingtiles.model.Symmetry;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Measures an arrangement with an additive, disjoint pattern database. The tiles are partitioned
+ * into disjoint <em>patterns</em>; for each pattern, a table holds the minimum number of moves of
+ * pattern tiles needed to bring those tiles home from every placement of them, where (as a
+ * relaxation) a pattern tile may move to any adjacent cell not occupied by another pattern tile.
+ * Since every move moves a tile of at most one pattern, the values of the patterns may be added,
+ * giving an admissible estimate that is typically much stronger than {@link ManhattanDistance}.
+ * Each lookup also consults the reflection of the arrangement about the main diagonal (see {@link
+ * Symmetry}), using the larger of the two estimates.
+ * <p>
+ * Tables are indexed by the {@link Ranking rank} of the positions of the pattern tiles. Since the
+ * value for a pattern always exceeds the Manhattan distance of its tiles by an even number, each
+ * entry holds half of that excess (capped at 15) in 4 bits. Tables are built by a parallel,
+ * layer-by-layer breadth-first search (see {@link #build(int, int[][])}), and may be written to a
+ * versioned binary file (see {@link #write(File)}), which {@link #load(File)} maps into memory
+ * rather than reading, so that loading is nearly instantaneous and multiple processes share a
+ * single copy of the tables.
+ * </p>
+ * <p>
+ * File format (all values big-endian): the magic number {@value #MAGIC}, the format version, the
+ * puzzle size, and the number of patterns (each an {@code int}); then, for each pattern, the number
+ * of tiles and the tile numbers (each an {@code int}); then the tables, in pattern order, each
+ * occupying <code>ceil(<em>n</em>! / (<em>n</em> - <em>k</em>)! / 2)</code> bytes.
+ * </p>
+ */
+public class PatternDatabase extends BaseMeasure {
+
+  /** Magic number identifying a pattern database file. */
+  public static final int MAGIC = 0x53545044;
+  /** Version of the file format written by this class. */
+  public static final int VERSION = 1;
+
+  private static final int MAX_EXCESS = 0xF;
+  private static final int UNVISITED = 0xFF;
+  private static final int LAYER_SPLIT_THRESHOLD = 1 << 16;
+
+  private final int size;
+  private final int[][] patterns;
+  private final ByteBuffer[] tables;
+  private final int[] patternOf;
+  private final ThreadLocal<int[][]> scratch;
+
+  private PatternDatabase(int size, int[][] patterns, ByteBuffer[] tables) {
+    this.size = size;
+    this.patterns = patterns;
+    this.tables = tables;
+    int numCells = size * size;
+    patternOf = new int[numCells];
+    Arrays.fill(patternOf, -1);
+    int maxTiles = 0;
+    for (int i = 0; i < patterns.length; i++) {
+      for (int tile : patterns[i]) {
+        patternOf[tile] = i;
+      }
+      maxTiles = Math.max(maxTiles, patterns[i].length);
+    }
+    int patternLength = maxTiles;
+    scratch = new ThreadLocal<int[][]>() {
+      @Override
+      protected int[][] initialValue() {
+        return new int[][]{new int[numCells], new int[patternLength]};
+      }
+    };
+  }
+
+  /**
+   * Returns the default partition of the tiles into patterns for the specified size: a 7-8 split
+   * for 4 X 4 puzzles, and a 6-6-6-6 split for 5 X 5 puzzles.
+   *
+   * @param size height and width of puzzle; must be 4 or 5.
+   * @return tile numbers of each pattern.
+   * @throws IllegalArgumentException if there is no default partition for {@code size}.
+   */
+  public static int[][] defaultPatterns(int size) {
+    switch (size) {
+      case 4:
+        return new int[][]{
+            {0, 1, 2, 3, 4, 5, 6},
+            {7, 8, 9, 10, 11, 12, 13, 14}
+        };
+      case 5:
+        return new int[][]{
+            {0, 1, 2, 5, 6, 7},
+            {3, 4, 8, 9, 13, 14},
+            {10, 11, 15, 16, 20, 21},
+            {12, 17, 18, 19, 22, 23}
+        };
+      default:
+        throw new IllegalArgumentException();
+    }
+  }
+
+  /**
+   * Builds the tables for the specified patterns, using the common {@link ForkJoinPool}. The
+   * working storage required is 1 byte per entry of the largest pattern; building the default 7-8
+   * split for the 15-puzzle, for example, requires approximately 520 MB of working storage, and
+   * produces tables of approximately 259 MB (16! / 8! / 2 bytes) for the 8-tile pattern, and 29 MB
+   * for the 7-tile pattern.
+   *
+   * @param size     height and width of puzzle.
+   * @param patterns disjoint sets of tile numbers (not including the empty space).
+   * @return pattern database measure.
+   * @throws IllegalArgumentException if {@code size} is outside the range {@link
+   *                                  PackedState#MIN_SIZE} to {@link PackedState#MAX_SIZE}
+   *                                  (inclusive), if the patterns are not disjoint, or if a pattern
+   *                                  has too many placements to be indexed in a single table.
+   */
+  public static PatternDatabase build(int size, int[][] patterns) {
+    validate(size, patterns);
+    ByteBuffer[] tables = new ByteBuffer[patterns.length];
+    for (int i = 0; i < patterns.length; i++) {
+      tables[i] = ByteBuffer.wrap(buildTable(size, patterns[i]));
+    }
+    return new PatternDatabase(size, copy(patterns), tables);
+  }
+
+  /**
+   * Loads a pattern database from the specified file, by mapping the tables into memory.
+   *
+   * @param file pattern database file, as written by {@link #write(File)}.
+   * @return pattern database measure.
+   * @throws IOException if the file cannot be read, or is not a valid pattern database file.
+   */
+  public static PatternDatabase load(File file) throws IOException {
+    try (
+        RandomAccessFile source = new RandomAccessFile(file, "r");
+        FileChannel channel = source.getChannel()
+    ) {
+      if (source.readInt() != MAGIC || source.readInt() != VERSION) {
+        throw new IOException("Not a supported pattern database file.");
+      }
+      // Each count is checked before it is used to allocate, so that a corrupt header fails with
+      // an IOException, rather than with a negative or enormous array size.
+      int size = readInt(source, PackedState.MIN_SIZE, PackedState.MAX_SIZE);
+      int numTiles = size * size - 1;
+      int[][] patterns = new int[readInt(source, 1, numTiles)][];
+      for (int i = 0; i < patterns.length; i++) {
+        patterns[i] = new int[readInt(source, 1, numTiles)];
+        for (int j = 0; j < patterns[i].length; j++) {
+          patterns[i][j] = readInt(source, 0, numTiles - 1);
+        }
+      }
+      try {
+        validate(size, patterns);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Invalid pattern database header.", e);
+      }
+      long offset = source.getFilePointer();
+      ByteBuffer[] tables = new ByteBuffer[patterns.length];
+      for (int i = 0; i < patterns.length; i++) {
+        long length = tableLength(size, patterns[i].length);
+        if (offset + length > channel.size()) {
+          throw new IOException("Truncated pattern database file.");
+        }
+        tables[i] = channel.map(MapMode.READ_ONLY, offset, length);
+        offset += length;
+      }
+      return new PatternDatabase(size, patterns, tables);
+    }
+  }
+
+  /**
+   * Writes this pattern database to the specified file.
+   *
+   * @param file destination file.
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(File file) throws IOException {
+    try (OutputStream output = new FileOutputStream(file)) {
+      write(output);
+    }
+  }
+
+  /**
+   * Writes this pattern database to the specified stream.
+   *
+   * @param output destination stream.
+   * @throws IOException if the stream cannot be written.
+   */
+  public void write(OutputStream output) throws IOException {
+    DataOutputStream data = new DataOutputStream(output);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(size);
+    data.writeInt(patterns.length);
+    for (int[] pattern : patterns) {
+      data.writeInt(pattern.length);
+      for (int tile : pattern) {
+        data.writeInt(tile);
+      }
+    }
+    byte[] buffer = new byte[1 << 16];
+    for (ByteBuffer table : tables) {
+      ByteBuffer source = table.duplicate();
+      source.clear();
+      while (source.hasRemaining()) {
+        int length = Math.min(buffer.length, source.remaining());
+        source.get(buffer, 0, length);
+        data.write(buffer, 0, length);
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * Returns the height and width of puzzle for which this pattern database was built.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public int getMeasure(Arrangement arrangement) {
+    if (arrangement.getSize() != size) {
+      throw new IllegalArgumentException();
+    }
+    int numCells = size * size;
+    int[][] buffers = scratch.get();
+    int[] positions = buffers[0];
+    int[] patternPositions = buffers[1];
+    int manhattan = 0;
+    for (int position = 0; position < numCells; position++) {
+      int tile = arrangement.getTileNumber(position);
+      positions[tile] = position;
+      if (tile != numCells - 1) {
+        manhattan += ManhattanDistance.distance(size, tile, position);
+      }
+    }
+    int excess = 0;
+    int reflectedExcess = 0;
+    for (int i = 0; i < patterns.length; i++) {
+      int[] pattern = patterns[i];
+      for (int j = 0; j < pattern.length; j++) {
+        patternPositions[j] = positions[pattern[j]];
+      }
+      excess += lookup(i, Ranking.rank(numCells, patternPositions, pattern.length));
+      for (int j = 0; j < pattern.length; j++) {
+        patternPositions[j] =
+            Symmetry.reflect(size, positions[Symmetry.reflect(size, pattern[j])]);
+      }
+      reflectedExcess += lookup(i, Ranking.rank(numCells, patternPositions, pattern.length));
+    }
+    return manhattan + 2 * Math.max(excess, reflectedExcess);
+  }
+
+  private int lookup(int pattern, long rank) {
+    int packed = tables[pattern].get((int) (rank >>> 1));
+    return ((rank & 1) == 0) ? packed & MAX_EXCESS : (packed >>> 4) & MAX_EXCESS;
+  }
+
+  private static int readInt(RandomAccessFile source, int min, int max) throws IOException {
+    int value = source.readInt();
+    if (value < min || value > max) {
+      throw new IOException("Invalid pattern database header.");
+    }
+    return value;
+  }
+
+  private static void validate(int size, int[][] patterns) {
+    if (size < PackedState.MIN_SIZE || size > PackedState.MAX_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    int numCells = size * size;
+    long used = 0;
+    for (int[] pattern : patterns) {
+      if (pattern.length == 0 || pattern.length >= numCells
+          || Ranking.count(numCells, pattern.length) > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException();
+      }
+      for (int tile : pattern) {
+        if (tile < 0 || tile >= numCells - 1 || (used & (1L << tile)) != 0) {
+          throw new IllegalArgumentException();
+        }
+        used |= 1L << tile;
+      }
+    }
+  }
+
+  private static long tableLength(int size, int tiles) {
+    return (Ranking.count(size * size, tiles) + 1) / 2;
+  }
+
+  private static int[][] copy(int[][] patterns) {
+    int[][] copy = new int[patterns.length][];
+    for (int i = 0; i < patterns.length; i++) {
+      copy[i] = patterns[i].clone();
+    }
+    return copy;
+  }
+
+  private static byte[] buildTable(int size, int[] pattern) {
+    int numCells = size * size;
+    int count = (int) Ranking.count(numCells, pattern.length);
+    byte[] depths = new byte[count];
+    Arrays.fill(depths, (byte) UNVISITED);
+    int[] goal = new int[pattern.length];
+    System.arraycopy(pattern, 0, goal, 0, pattern.length);
+    depths[(int) Ranking.rank(numCells, goal, pattern.length)] = 0;
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    for (int depth = 0; ; depth++) {
+      LayerTask task = new LayerTask(size, pattern.length, depths, depth, 0, count);
+      pool.invoke(task);
+      if (!task.expanded) {
+        break;
+      }
+    }
+    byte[] table = new byte[(int) tableLength(size, pattern.length)];
+    pool.invoke(new PackTask(size, pattern, depths, table, 0, table.length));
+    return table;
+  }
+
+  @SuppressWarnings("serial")
+  private static class LayerTask extends RecursiveAction {
+
+    private final int size;
+    private final int tiles;
+    private final byte[] depths;
+    private final int depth;
+    private final int start;
+    private final int end;
+    private boolean expanded;
+
+    private LayerTask(int size, int tiles, byte[] depths, int depth, int start, int end) {
+      this.size = size;
+      this.tiles = tiles;
+      this.depths = depths;
+      this.depth = depth;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > LAYER_SPLIT_THRESHOLD) {
+        int middle = (start + end) >>> 1;
+        LayerTask left = new LayerTask(size, tiles, depths, depth, start, middle);
+        LayerTask right = new LayerTask(size, tiles, depths, depth, middle, end);
+        invokeAll(left, right);
+        expanded = left.expanded || right.expanded;
+      } else {
+        expand();
+      }
+    }
+
+    private void expand() {
+      int numCells = size * size;
+      int[][] neighbors = Neighbors.of(size);
+      int[] positions = new int[tiles];
+      byte next = (byte) (depth + 1);
+      for (int rank = start; rank < end; rank++) {
+        if ((depths[rank] & 0xFF) == depth) {
+          expanded = true;
+          Ranking.unrank(numCells, tiles, rank, positions);
+          long occupied = 0;
+          for (int position : positions) {
+            occupied |= 1L << position;
+          }
+          for (int i = 0; i < tiles; i++) {
+            int from = positions[i];
+            for (int to : neighbors[from]) {
+              if ((occupied & (1L << to)) == 0) {
+                positions[i] = to;
+                int successor = (int) Ranking.rank(numCells, positions, tiles);
+                if ((depths[successor] & 0xFF) == UNVISITED) {
+                  depths[successor] = next;
+                }
+              }
+            }
+            positions[i] = from;
+          }
+        }
+      }
+    }
+
+  }
+
+  @SuppressWarnings("serial")
+  private static class PackTask extends RecursiveAction {
+
+    private final int size;
+    private final int[] pattern;
+    private final byte[] depths;
+    private final byte[] table;
+    private final int start;
+    private final int end;
+
+    private PackTask(int size, int[] pattern, byte[] depths, byte[] table, int start, int end) {
+      this.size = size;
+      this.pattern = pattern;
+      this.depths = depths;
+      this.table = table;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > LAYER_SPLIT_THRESHOLD) {
+        int middle = (start + end) >>> 1;
+        invokeAll(new PackTask(size, pattern, depths, table, start, middle),
+            new PackTask(size, pattern, depths, table, middle, end));
+      } else {
+        int[] positions = new int[pattern.length];
+        for (int index = start; index < end; index++) {
+          table[index] = (byte) (excess(2 * index, positions)
+              | (excess(2 * index + 1, positions) << 4));
+        }
+      }
+    }
+
+    private int excess(int rank, int[] positions) {
+      if (rank >= depths.length) {
+        return 0;
+      }
+      Ranking.unrank(size * size, pattern.length, rank, positions);
+      int manhattan = 0;
+      for (int i = 0; i < pattern.length; i++) {
+        manhattan += ManhattanDistance.distance(size, pattern[i], positions[i]);
+      }
+      return Math.min(MAX_EXCESS, ((depths[rank] & 0xFF) - manhattan) / 2);
+    }
+
+  }
+
+}
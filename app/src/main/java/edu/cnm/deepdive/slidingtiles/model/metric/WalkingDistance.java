@@ -0,0 +1,228 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.LongHashSet;
+import java.util.Arrays;
+
+/**
+ * Measures an arrangement by its <em>walking distance</em>. The vertical component considers only
+ * which rows the tiles are in, and which rows they belong in: a state is the number of tiles in
+ * each row that belong in each home row (together with the row of the empty space), and the
+ * vertical walking distance is the minimum number of vertical moves that bring every tile to its
+ * home row, where any tile in a row adjacent to the empty space may move into it. The horizontal
+ * component is defined in the same way for columns; since the puzzle is symmetric about the main
+ * diagonal, the same table serves for both. The sum of the two components is an admissible
+ * estimate that is considerably stronger than {@link ManhattanDistance}, while the tables (computed
+ * once per size, by breadth-first search from the goal) occupy only a few hundred KB for the
+ * 15-puzzle.
+ * <p>
+ * Besides {@link #getMeasure(Arrangement)}, which classifies the arrangement and performs two table
+ * lookups, the table indices may be maintained incrementally by a caller (e.g. a solver): a
+ * vertical move changes only the row index, and a horizontal move only the column index, each by a
+ * single transition-table lookup (see {@link #nextIndex(int, int, int, int)}).
+ * </p>
+ */
+public class WalkingDistance extends BaseMeasure {
+
+  /** Minimum supported puzzle size. */
+  public static final int MIN_SIZE = 3;
+  /** Maximum supported puzzle size. */
+  public static final int MAX_SIZE = 4;
+  /** Transition table value indicating that a move is not possible. */
+  public static final int NONE = Character.MAX_VALUE;
+
+  private static final int COUNT_BITS = 3;
+  private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+  private static final Tables[] TABLES = new Tables[MAX_SIZE + 1];
+
+  private final int size;
+  private final Tables tables;
+
+  /**
+   * Initializes this measure for the specified puzzle size, computing the tables for that size if
+   * they have not already been computed.
+   *
+   * @param size height and width of puzzle.
+   * @throws IllegalArgumentException if {@code size} is not supported.
+   */
+  public WalkingDistance(int size) {
+    if (size < MIN_SIZE || size > MAX_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    this.size = size;
+    tables = tablesFor(size);
+  }
+
+  @Override
+  public int getMeasure(Arrangement arrangement) {
+    return getDistance(getRowIndex(arrangement)) + getDistance(getColumnIndex(arrangement));
+  }
+
+  /**
+   * Returns the number of distinct row (or column) occupancy states.
+   */
+  public int getStateCount() {
+    return tables.codes.length;
+  }
+
+  /**
+   * Returns the index of the row occupancy state of the specified arrangement.
+   *
+   * @param arrangement tile arrangement.
+   * @return row state index.
+   */
+  public int getRowIndex(Arrangement arrangement) {
+    return indexOf(arrangement, false);
+  }
+
+  /**
+   * Returns the index of the column occupancy state of the specified arrangement.
+   *
+   * @param arrangement tile arrangement.
+   * @return column state index.
+   */
+  public int getColumnIndex(Arrangement arrangement) {
+    return indexOf(arrangement, true);
+  }
+
+  /**
+   * Returns the walking distance component for the specified row (or column) state index.
+   *
+   * @param index state index.
+   * @return vertical (or horizontal) walking distance.
+   */
+  public int getDistance(int index) {
+    return tables.distances[index];
+  }
+
+  /**
+   * Returns the index of the row (or column) state that results from moving a tile from one row (or
+   * column) into the empty space in an adjacent row (or column).
+   *
+   * @param index    current state index.
+   * @param fromLine row (or column) of tile before the move.
+   * @param toLine   row (or column) of tile after the move (i.e. of the empty space).
+   * @param homeLine home row (or column) of tile.
+   * @return resulting state index, or {@link #NONE} if the move is not possible.
+   */
+  public int nextIndex(int index, int fromLine, int toLine, int homeLine) {
+    int direction = (fromLine < toLine) ? 0 : 1;
+    return tables.transitions[(index * 2 + direction) * size + homeLine];
+  }
+
+  private int indexOf(Arrangement arrangement, boolean columns) {
+    int numCells = size * size;
+    long code = 0;
+    for (int position = 0; position < numCells; position++) {
+      int number = arrangement.getTileNumber(position);
+      int line = columns ? position % size : position / size;
+      if (number == numCells - 1) {
+        code |= (long) line << (size * size * COUNT_BITS);
+      } else {
+        int homeLine = columns ? number % size : number / size;
+        code += 1L << ((line * size + homeLine) * COUNT_BITS);
+      }
+    }
+    return Arrays.binarySearch(tables.codes, code);
+  }
+
+  private static synchronized Tables tablesFor(int size) {
+    if (TABLES[size] == null) {
+      TABLES[size] = new Tables(size);
+    }
+    return TABLES[size];
+  }
+
+  private static class Tables {
+
+    private final long[] codes;
+    private final byte[] distances;
+    private final char[] transitions;
+
+    private Tables(int size) {
+      int blankShift = size * size * COUNT_BITS;
+      long goal = (long) (size - 1) << blankShift;
+      for (int line = 0; line < size; line++) {
+        goal += (long) ((line < size - 1) ? size : size - 1) << ((line * size + line) * COUNT_BITS);
+      }
+      long[] queue = new long[1024];
+      byte[] depths = new byte[queue.length];
+      LongHashSet visited = new LongHashSet();
+      queue[0] = goal;
+      visited.add(goal);
+      int head = 0;
+      int tail = 1;
+      while (head < tail) {
+        long code = queue[head];
+        byte depth = depths[head++];
+        int blankLine = (int) (code >>> blankShift);
+        for (int direction = 0; direction < 2; direction++) {
+          int fromLine = (direction == 0) ? blankLine - 1 : blankLine + 1;
+          if (fromLine < 0 || fromLine >= size) {
+            continue;
+          }
+          for (int homeLine = 0; homeLine < size; homeLine++) {
+            long next = successor(size, code, fromLine, blankLine, homeLine);
+            if (next != -1 && visited.add(next)) {
+              if (tail == queue.length) {
+                queue = Arrays.copyOf(queue, tail * 2);
+                depths = Arrays.copyOf(depths, tail * 2);
+              }
+              queue[tail] = next;
+              depths[tail++] = (byte) (depth + 1);
+            }
+          }
+        }
+      }
+      long[] sorted = Arrays.copyOf(queue, tail);
+      Arrays.sort(sorted);
+      codes = sorted;
+      distances = new byte[tail];
+      for (int i = 0; i < tail; i++) {
+        distances[Arrays.binarySearch(codes, queue[i])] = depths[i];
+      }
+      transitions = new char[tail * 2 * size];
+      for (int index = 0; index < tail; index++) {
+        long code = codes[index];
+        int blankLine = (int) (code >>> blankShift);
+        for (int direction = 0; direction < 2; direction++) {
+          int fromLine = (direction == 0) ? blankLine - 1 : blankLine + 1;
+          for (int homeLine = 0; homeLine < size; homeLine++) {
+            long next = (fromLine < 0 || fromLine >= size)
+                ? -1 : successor(size, code, fromLine, blankLine, homeLine);
+            transitions[(index * 2 + direction) * size + homeLine] =
+                (char) ((next != -1) ? Arrays.binarySearch(codes, next) : NONE);
+          }
+        }
+      }
+    }
+
+    private static long successor(int size, long code, int fromLine, int blankLine, int homeLine) {
+      int fromShift = (fromLine * size + homeLine) * COUNT_BITS;
+      if (((code >>> fromShift) & COUNT_MASK) == 0) {
+        return -1;
+      }
+      int toShift = (blankLine * size + homeLine) * COUNT_BITS;
+      int blankShift = size * size * COUNT_BITS;
+      long next = code - (1L << fromShift) + (1L << toShift);
+      return (next & ~(0x3L << blankShift)) | ((long) fromLine << blankShift);
+    }
+
+  }
+
+}
@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.LongHashSet;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.PackedView;
+import edu.cnm.deepdive.slidingtiles.model.Solvability;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import java.util.Arrays;
+
+/**
+ * Finds optimal (shortest) solutions of puzzles up to 4 X 4 using A* search. Since the cost of
+ * every move is 1, the <i>f</i>-values (path length plus estimated remaining distance) of search
+ * nodes are small integers, so the open list is an array of buckets indexed by <i>f</i>-value,
+ * each an intrusive last-in, first-out list (which favors deeper nodes among those with equal
+ * <i>f</i>-values); insertion and removal are constant-time.
+ * <p>
+ * Nodes are stored in parallel primitive arrays (packed state, parent index, next node in bucket,
+ * path length, heuristic value, and position of the empty space), about 19 bytes per node, rather
+ * than as objects; the closed set is a {@link LongHashSet} of packed states. Duplicate entries in
+ * the open list are not removed, but are skipped when they reach the front of the list. The
+ * heuristic must be admissible and consistent (as {@link LinearConflict}, the default, is) for
+ * the solution to be optimal.
+ * </p>
+ * <p>
+ * Since memory use grows with the number of nodes generated, a limit on that number may be
+ * specified; the memory occupied by the node pools and closed set at the end of the most recent
+ * search is available from {@link #getPeakMemory()}. Instances are not safe for concurrent use by
+ * multiple threads.
+ * </p>
+ */
+public class AStarSolver {
+
+  /** Default limit on the number of nodes generated in a single search. */
+  public static final int DEFAULT_NODE_LIMIT = 50_000_000;
+
+  private static final int MAX_SIZE = 4;
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  private static final int NONE = -1;
+
+  private final Measure heuristic;
+  private final int nodeLimit;
+  private long[] states;
+  private int[] parents;
+  private int[] next;
+  private byte[] lengths;
+  private byte[] estimates;
+  private byte[] blanks;
+  private int[] buckets;
+  private LongHashSet closed;
+  private int count;
+  private long expanded;
+  private long peakMemory;
+
+  /**
+   * Initializes this solver with {@link LinearConflict} as the heuristic, and the default node
+   * limit.
+   */
+  public AStarSolver() {
+    this(new LinearConflict(), DEFAULT_NODE_LIMIT);
+  }
+
+  /**
+   * Initializes this solver with the specified heuristic and node limit.
+   *
+   * @param heuristic admissible and consistent measure of the distance from an arrangement to the
+   *                  solution.
+   * @param nodeLimit maximum number of nodes generated in a single search.
+   */
+  public AStarSolver(Measure heuristic, int nodeLimit) {
+    this.heuristic = heuristic;
+    this.nodeLimit = nodeLimit;
+  }
+
+  /**
+   * Returns an optimal sequence of single-tile moves that solves the specified arrangement, or
+   * {@code null} if the node limit is reached first. The arrangement itself is not modified.
+   *
+   * @param start arrangement to solve.
+   * @return packed moves (see {@link Move#pack(int, int)}), in order; empty if {@code start} is
+   * already solved.
+   * @throws IllegalArgumentException if {@code start} is larger than 4 X 4, or is not solvable.
+   */
+  public int[] solve(Arrangement start) {
+    int size = start.getSize();
+    if (size > MAX_SIZE || !Solvability.isSolvable(start)) {
+      throw new IllegalArgumentException();
+    }
+    PackedState initial = new PackedState(start);
+    long word = initial.toLong();
+    PackedView view = new PackedView(size);
+    int[][] neighbors = Neighbors.of(size);
+    long goal = new PackedState(size).toLong();
+    allocate();
+    try {
+      int minimum =
+          push(word, NONE, 0, heuristic.getMeasure(view.set(word)), initial.getBlank());
+      while (true) {
+        while (buckets[minimum] == NONE) {
+          minimum++;
+        }
+        int node = buckets[minimum];
+        buckets[minimum] = next[node];
+        word = states[node];
+        if (!closed.add(word)) {
+          continue;
+        }
+        if (word == goal) {
+          return path(node);
+        }
+        expanded++;
+        int blank = blanks[node];
+        int previous = (parents[node] != NONE) ? blanks[parents[node]] : NONE;
+        int length = lengths[node] + 1;
+        for (int from : neighbors[blank]) {
+          if (from != previous) {
+            long child = PackedState.slide(word, size, blank, from);
+            if (!closed.contains(child)) {
+              if (count == nodeLimit) {
+                return null;
+              }
+              int estimate =
+                  heuristic.update(view.set(child), estimates[node], Move.pack(from, blank));
+              minimum = Math.min(minimum, push(child, node, length, estimate, from));
+            }
+          }
+        }
+      }
+    } finally {
+      peakMemory = footprint();
+      release();
+    }
+  }
+
+  /**
+   * Returns the number of nodes expanded in the most recent invocation of {@link
+   * #solve(Arrangement)}.
+   */
+  public long getExpandedCount() {
+    return expanded;
+  }
+
+  /**
+   * Returns the number of nodes generated in the most recent invocation of {@link
+   * #solve(Arrangement)}.
+   */
+  public long getGeneratedCount() {
+    return count;
+  }
+
+  /**
+   * Returns an estimate of the memory (in bytes) occupied by the node pools, open list, and closed
+   * set at the end of the most recent invocation of {@link #solve(Arrangement)}. Since these only
+   * grow during a search, this is the peak memory used by the search.
+   */
+  public long getPeakMemory() {
+    return peakMemory;
+  }
+
+  private int push(long state, int parent, int length, int estimate, int blank) {
+    if (count == states.length) {
+      int capacity = count * 2;
+      states = Arrays.copyOf(states, capacity);
+      parents = Arrays.copyOf(parents, capacity);
+      next = Arrays.copyOf(next, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      estimates = Arrays.copyOf(estimates, capacity);
+      blanks = Arrays.copyOf(blanks, capacity);
+    }
+    int f = length + estimate;
+    if (f >= buckets.length) {
+      int old = buckets.length;
+      buckets = Arrays.copyOf(buckets, Math.max(f + 1, old * 2));
+      Arrays.fill(buckets, old, buckets.length, NONE);
+    }
+    int node = count++;
+    states[node] = state;
+    parents[node] = parent;
+    lengths[node] = (byte) length;
+    estimates[node] = (byte) estimate;
+    blanks[node] = (byte) blank;
+    next[node] = buckets[f];
+    buckets[f] = node;
+    return f;
+  }
+
+  private int[] path(int node) {
+    int[] moves = new int[lengths[node]];
+    for (int i = moves.length - 1; i >= 0; i--) {
+      int parent = parents[node];
+      moves[i] = Move.pack(blanks[node], blanks[parent]);
+      node = parent;
+    }
+    return moves;
+  }
+
+  private void allocate() {
+    states = new long[INITIAL_CAPACITY];
+    parents = new int[INITIAL_CAPACITY];
+    next = new int[INITIAL_CAPACITY];
+    lengths = new byte[INITIAL_CAPACITY];
+    estimates = new byte[INITIAL_CAPACITY];
+    blanks = new byte[INITIAL_CAPACITY];
+    buckets = new int[128];
+    Arrays.fill(buckets, NONE);
+    closed = new LongHashSet(INITIAL_CAPACITY);
+    count = 0;
+    expanded = 0;
+  }
+
+  private long footprint() {
+    return (long) states.length * (Long.BYTES + 2 * Integer.BYTES + 3 * Byte.BYTES)
+        + (long) buckets.length * Integer.BYTES + closed.getFootprint();
+  }
+
+  private void release() {
+    states = null;
+    parents = null;
+    next = null;
+    lengths = null;
+    estimates = null;
+    blanks = null;
+    buckets = null;
+    closed = null;
+  }
+
+}
@@ -0,0 +1,330 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.LongHashSet;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Solvability;
+import edu.cnm.deepdive.slidingtiles.model.Zobrist;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import java.util.Arrays;
+
+/**
+ * Finds solutions of puzzles of any supported size within a caller-specified budget of time and
+ * search nodes, using <em>anytime</em> weighted A*: a sequence of weighted A* searches, in which
+ * nodes are ordered by <code>g + w &times; h</code> (path length, plus the heuristic estimate
+ * inflated by the weight <i>w</i>). A high initial weight finds a (possibly long) solution
+ * quickly; each subsequent search halves the excess of the weight over 1, and prunes every node
+ * that cannot lead to a solution shorter than the best found so far. Each solution found by a
+ * search with weight <i>w</i> is at most <i>w</i> times the optimal length, and a search with
+ * weight 1 that runs to completion (with a consistent heuristic) proves the best solution optimal.
+ * <p>
+ * When the budget is exhausted, the best solution found so far is returned; it is also available,
+ * while a search is running, from {@link #getBestSolution()} (e.g. to another thread displaying a
+ * hint). As in {@link AStarSolver}, the open list is an array of buckets (here indexed by
+ * <code>g + w &times; h</code>, in units of a quarter move), and nodes are held in primitive
+ * pools&mdash;with each arrangement stored as one byte per cell, since puzzles larger than 4 X 4
+ * do not fit in a single packed word&mdash;while the closed set is a {@link LongHashSet} of
+ * {@link Zobrist} keys.
+ * </p>
+ * <p>
+ * Instances are not safe for concurrent use by multiple threads, except for reading the best
+ * solution.
+ * </p>
+ */
+public class AnytimeSolver {
+
+  /** Scale of the fixed-point representation of weights. */
+  public static final int WEIGHT_SCALE = 4;
+  /** Default initial weight, in units of 1 / {@link #WEIGHT_SCALE}. */
+  public static final int DEFAULT_INITIAL_WEIGHT = 5 * WEIGHT_SCALE;
+
+  private static final int INITIAL_CAPACITY = 1 << 12;
+  private static final int CHECK_INTERVAL = 1 << 10;
+  private static final int NONE = -1;
+
+  private final Measure heuristic;
+  private final int initialWeight;
+  private final View view;
+  private int size;
+  private int numCells;
+  private byte[] cells;
+  private long[] keys;
+  private int[] parents;
+  private int[] next;
+  private short[] lengths;
+  private short[] estimates;
+  private byte[] blanks;
+  private int[] buckets;
+  private LongHashSet closed;
+  private int count;
+  private long expanded;
+  private volatile int[] best;
+  private int bestWeight;
+  private boolean optimal;
+
+  /**
+   * Initializes this solver with {@link LinearConflict} as the heuristic, and the default initial
+   * weight.
+   */
+  public AnytimeSolver() {
+    this(new LinearConflict(), DEFAULT_INITIAL_WEIGHT);
+  }
+
+  /**
+   * Initializes this solver with the specified heuristic and initial weight.
+   *
+   * @param heuristic     admissible measure of the distance from an arrangement to the solution.
+   * @param initialWeight weight of the first search, in units of 1 / {@link #WEIGHT_SCALE}.
+   * @throws IllegalArgumentException if {@code initialWeight} is less than {@link #WEIGHT_SCALE}.
+   */
+  public AnytimeSolver(Measure heuristic, int initialWeight) {
+    if (initialWeight < WEIGHT_SCALE) {
+      throw new IllegalArgumentException();
+    }
+    this.heuristic = heuristic;
+    this.initialWeight = initialWeight;
+    view = new View();
+  }
+
+  /**
+   * Searches for solutions of the specified arrangement until the shortest solution has been
+   * found, or the specified time or node budget is exhausted, and returns the best solution found.
+   * The arrangement itself is not modified.
+   *
+   * @param start      arrangement to solve.
+   * @param timeBudget maximum elapsed time, in milliseconds.
+   * @param nodeBudget maximum number of nodes expanded, across all searches.
+   * @return packed moves (see {@link Move#pack(int, int)}), in order, of the shortest solution
+   * found; {@code null} if the budget was exhausted before any solution was found.
+   * @throws IllegalArgumentException if {@code start} is not solvable.
+   */
+  public int[] solve(Arrangement start, long timeBudget, long nodeBudget) {
+    if (!Solvability.isSolvable(start)) {
+      throw new IllegalArgumentException();
+    }
+    long deadline = System.nanoTime() + timeBudget * 1_000_000L;
+    size = start.getSize();
+    numCells = size * size;
+    best = null;
+    bestWeight = 0;
+    optimal = false;
+    expanded = 0;
+    int weight = initialWeight;
+    boolean complete = true;
+    while (complete && !optimal && System.nanoTime() < deadline) {
+      complete = search(start, weight, deadline, nodeBudget);
+      if (complete && weight == WEIGHT_SCALE) {
+        optimal = true;
+      }
+      weight = WEIGHT_SCALE + (weight - WEIGHT_SCALE) / 2;
+    }
+    return getBestSolution();
+  }
+
+  /**
+   * Returns the shortest solution found so far by the current (or most recent) invocation of
+   * {@link #solve(Arrangement, long, long)}, or {@code null} if none has been found. This may be
+   * invoked from any thread.
+   */
+  public int[] getBestSolution() {
+    int[] solution = best;
+    return (solution != null) ? solution.clone() : null;
+  }
+
+  /**
+   * Returns the weight of the search that found the best solution, in units of 1 / {@link
+   * #WEIGHT_SCALE}; the length of that solution is at most this weight times the optimal length.
+   */
+  public int getBestWeight() {
+    return bestWeight;
+  }
+
+  /**
+   * Returns {@code true} if the best solution found by the most recent invocation of {@link
+   * #solve(Arrangement, long, long)} is known to be optimal.
+   */
+  public boolean isOptimal() {
+    return optimal;
+  }
+
+  /**
+   * Returns the number of nodes expanded in the most recent invocation of {@link
+   * #solve(Arrangement, long, long)}, across all searches.
+   */
+  public long getExpandedCount() {
+    return expanded;
+  }
+
+  private boolean search(Arrangement start, int weight, long deadline, long nodeBudget) {
+    int[][] neighbors = Neighbors.of(size);
+    long goal = Zobrist.key(new PackedState(size));
+    int limit = (best != null) ? best.length : Integer.MAX_VALUE;
+    allocate();
+    try {
+      PackedState initial = new PackedState(start);
+      for (int position = 0; position < numCells; position++) {
+        cells[position] = (byte) initial.get(position);
+      }
+      view.offset = 0;
+      int estimate = heuristic.getMeasure(view);
+      if (estimate >= limit) {
+        return true;
+      }
+      count = 1;
+      keys[0] = Zobrist.key(initial);
+      parents[0] = NONE;
+      blanks[0] = (byte) initial.getBlank();
+      int minimum = enqueue(0, 0, estimate, weight);
+      while (true) {
+        while (minimum < buckets.length && buckets[minimum] == NONE) {
+          minimum++;
+        }
+        if (minimum == buckets.length) {
+          return true;
+        }
+        int node = buckets[minimum];
+        buckets[minimum] = next[node];
+        long key = keys[node];
+        int length = lengths[node];
+        if (length + estimates[node] >= limit || !closed.add(key)) {
+          continue;
+        }
+        if (key == goal) {
+          best = path(node);
+          bestWeight = weight;
+          return true;
+        }
+        if (++expanded >= nodeBudget
+            || ((expanded & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadline)) {
+          return false;
+        }
+        int blank = blanks[node];
+        int previous = (parents[node] != NONE) ? blanks[parents[node]] : NONE;
+        for (int from : neighbors[blank]) {
+          if (from != previous) {
+            int tile = cells[node * numCells + from];
+            long childKey = key ^ Zobrist.delta(size, tile, from, blank);
+            if (!closed.contains(childKey)) {
+              int child = allocateNode();
+              int offset = child * numCells;
+              System.arraycopy(cells, node * numCells, cells, offset, numCells);
+              cells[offset + blank] = (byte) tile;
+              cells[offset + from] = (byte) (numCells - 1);
+              keys[child] = childKey;
+              parents[child] = node;
+              blanks[child] = (byte) from;
+              view.offset = offset;
+              int childEstimate = heuristic.update(view, estimates[node], Move.pack(from, blank));
+              if (length + 1 + childEstimate < limit) {
+                minimum = Math.min(minimum, enqueue(child, length + 1, childEstimate, weight));
+              } else {
+                count--;
+              }
+            }
+          }
+        }
+      }
+    } finally {
+      release();
+    }
+  }
+
+  private int allocateNode() {
+    if (count == keys.length) {
+      int capacity = count * 2;
+      cells = Arrays.copyOf(cells, capacity * numCells);
+      keys = Arrays.copyOf(keys, capacity);
+      parents = Arrays.copyOf(parents, capacity);
+      next = Arrays.copyOf(next, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      estimates = Arrays.copyOf(estimates, capacity);
+      blanks = Arrays.copyOf(blanks, capacity);
+    }
+    return count++;
+  }
+
+  private int enqueue(int node, int length, int estimate, int weight) {
+    int f = length * WEIGHT_SCALE + estimate * weight;
+    if (f >= buckets.length) {
+      int old = buckets.length;
+      buckets = Arrays.copyOf(buckets, Math.max(f + 1, old * 2));
+      Arrays.fill(buckets, old, buckets.length, NONE);
+    }
+    lengths[node] = (short) length;
+    estimates[node] = (short) estimate;
+    next[node] = buckets[f];
+    buckets[f] = node;
+    return f;
+  }
+
+  private int[] path(int node) {
+    int[] moves = new int[lengths[node]];
+    for (int i = moves.length - 1; i >= 0; i--) {
+      int parent = parents[node];
+      moves[i] = Move.pack(blanks[node], blanks[parent]);
+      node = parent;
+    }
+    return moves;
+  }
+
+  private void allocate() {
+    cells = new byte[INITIAL_CAPACITY * numCells];
+    keys = new long[INITIAL_CAPACITY];
+    parents = new int[INITIAL_CAPACITY];
+    next = new int[INITIAL_CAPACITY];
+    lengths = new short[INITIAL_CAPACITY];
+    estimates = new short[INITIAL_CAPACITY];
+    blanks = new byte[INITIAL_CAPACITY];
+    buckets = new int[1024];
+    Arrays.fill(buckets, NONE);
+    closed = new LongHashSet(INITIAL_CAPACITY);
+    count = 0;
+  }
+
+  private void release() {
+    cells = null;
+    keys = null;
+    parents = null;
+    next = null;
+    lengths = null;
+    estimates = null;
+    blanks = null;
+    buckets = null;
+    closed = null;
+  }
+
+  private class View implements Arrangement {
+
+    private int offset;
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public int getTileNumber(int position) {
+      return cells[offset + position];
+    }
+
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.LongHashSet;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Solvability;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds optimal (shortest) solutions of puzzles up to 4 X 4 by bidirectional breadth-first search:
+ * one frontier grows from the starting arrangement, and another from the solved arrangement, until
+ * they meet. Since each frontier need only reach about half the solution depth, far fewer states
+ * are generated than by a unidirectional search; this makes the solver well suited to 3 X 3 (and
+ * smaller) puzzles, and to cross-checking the optimality of the heuristic solvers.
+ * <p>
+ * Each step expands every state in the smaller of the two current frontier layers. Each layer of
+ * each side is kept as a {@link LongHashSet} of packed states; since every move changes the parity
+ * of the position of the empty space, a state's neighbors are always in the adjacent layers, so
+ * duplicate detection needs only the previous layer, and solution paths are recovered by walking
+ * from the meeting state back through the layers of each side. When a state generated in a step is
+ * found in any layer of the opposite side, the step is completed, and the shortest of the paths
+ * through the meeting states found in that step is returned.
+ * </p>
+ * <p>
+ * Instances are not safe for concurrent use by multiple threads.
+ * </p>
+ */
+public class BidirectionalSolver {
+
+  private static final int MAX_SIZE = 4;
+
+  private int size;
+  private int[][] neighbors;
+  private long expanded;
+
+  /**
+   * Returns an optimal sequence of single-tile moves that solves the specified arrangement. The
+   * arrangement itself is not modified.
+   *
+   * @param start arrangement to solve.
+   * @return packed moves (see {@link Move#pack(int, int)}), in order; empty if {@code start} is
+   * already solved.
+   * @throws IllegalArgumentException if {@code start} is larger than 4 X 4, or is not solvable.
+   */
+  public int[] solve(Arrangement start) {
+    size = start.getSize();
+    if (size > MAX_SIZE || !Solvability.isSolvable(start)) {
+      throw new IllegalArgumentException();
+    }
+    neighbors = Neighbors.of(size);
+    expanded = 0;
+    List<LongHashSet> forward = new ArrayList<>();
+    List<LongHashSet> backward = new ArrayList<>();
+    long initial = new PackedState(start).toLong();
+    long goal = new PackedState(size).toLong();
+    if (initial == goal) {
+      return new int[0];
+    }
+    forward.add(layerOf(initial));
+    backward.add(layerOf(goal));
+    long meeting = 0;
+    int best = Integer.MAX_VALUE;
+    int meetingDepth = 0;
+    while (best == Integer.MAX_VALUE) {
+      boolean forwardStep = forward.get(forward.size() - 1).size()
+          <= backward.get(backward.size() - 1).size();
+      List<LongHashSet> side = forwardStep ? forward : backward;
+      List<LongHashSet> other = forwardStep ? backward : forward;
+      LongHashSet current = side.get(side.size() - 1);
+      LongHashSet previous = (side.size() > 1) ? side.get(side.size() - 2) : null;
+      LongHashSet next = new LongHashSet(current.size() * 2);
+      for (long state : current.toArray()) {
+        expanded++;
+        int blank = PackedState.findBlank(state, size);
+        for (int from : neighbors[blank]) {
+          long child = PackedState.slide(state, size, blank, from);
+          if ((previous == null || !previous.contains(child)) && next.add(child)) {
+            for (int depth = 0; depth < other.size(); depth++) {
+              int length = side.size() + depth;
+              if (length < best && other.get(depth).contains(child)) {
+                best = length;
+                meeting = child;
+                meetingDepth = depth;
+              }
+            }
+          }
+        }
+      }
+      side.add(next);
+      if (best != Integer.MAX_VALUE) {
+        int[] moves = new int[best];
+        int forwardDepth = forwardStep ? side.size() - 1 : meetingDepth;
+        int backwardDepth = best - forwardDepth;
+        long state = meeting;
+        for (int depth = forwardDepth; depth > 0; depth--) {
+          long parent = neighborIn(state, forward.get(depth - 1));
+          moves[depth - 1] = moveBetween(parent, state);
+          state = parent;
+        }
+        state = meeting;
+        for (int depth = backwardDepth; depth > 0; depth--) {
+          long child = neighborIn(state, backward.get(depth - 1));
+          moves[best - depth] = moveBetween(state, child);
+          state = child;
+        }
+        return moves;
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Returns the number of states expanded in the most recent invocation of {@link
+   * #solve(Arrangement)}, in both directions.
+   */
+  public long getExpandedCount() {
+    return expanded;
+  }
+
+  private long neighborIn(long state, LongHashSet layer) {
+    int blank = PackedState.findBlank(state, size);
+    for (int from : neighbors[blank]) {
+      long neighbor = PackedState.slide(state, size, blank, from);
+      if (layer.contains(neighbor)) {
+        return neighbor;
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private int moveBetween(long state, long next) {
+    return Move.pack(PackedState.findBlank(next, size), PackedState.findBlank(state, size));
+  }
+
+  private static LongHashSet layerOf(long state) {
+    LongHashSet layer = new LongHashSet();
+    layer.add(state);
+    return layer;
+  }
+
+}
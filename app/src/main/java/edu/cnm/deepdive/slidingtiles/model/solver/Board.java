@@ -0,0 +1,267 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.WalkingDistance;
+
+/**
+ * Mutable working arrangement used by solvers, on which moves are applied and undone in place.
+ * Unlike a {@link edu.cnm.deepdive.slidingtiles.model.Puzzle}, a board records no history and
+ * maintains no keys; it tracks only the position of the empty space, the number of misplaced
+ * tiles, and (for puzzles no larger than 6 X 6) the {@link LinearConflict} estimate, so that a move
+ * (or the undoing of a move) is a handful of array operations.
+ * <p>
+ * For the linear conflict estimate, the contents of each row and column are encoded as a number in
+ * base <code>size + 1</code>, with one digit per position: the home order of the tile in that
+ * position, if the tile's home is in the same line, or <code>size</code> otherwise. The number of
+ * conflicts in a line is then a lookup in a table (shared by all boards of the same size) indexed
+ * by that code. A move changes only one digit in each of two lines across the move, and moves one
+ * digit within the line along the move (which does not change that line's conflicts), so the
+ * estimate is maintained with two table lookups per move.
+ * </p>
+ * <p>
+ * A board may also be asked to track the {@link WalkingDistance} row and column state indices (see
+ * {@link #track(WalkingDistance)}); a vertical move then changes only the row index, and a
+ * horizontal move only the column index, each with one transition-table lookup.
+ * </p>
+ */
+final class Board implements Arrangement {
+
+  private static final int MAX_TRACKED_SIZE = 6;
+  private static final byte[][] CONFLICTS = new byte[MAX_TRACKED_SIZE + 1][];
+
+  private final int size;
+  private final byte[] cells;
+  private final byte[] rowOf;
+  private final byte[] columnOf;
+  private final int[] rows;
+  private final int[] columns;
+  private final int[] powers;
+  private final byte[] conflicts;
+  private int blank;
+  private int misplaced;
+  private int manhattan;
+  private int conflictCount;
+  private WalkingDistance walking;
+  private int rowIndex;
+  private int columnIndex;
+
+  Board(Arrangement source) {
+    size = source.getSize();
+    cells = new byte[size * size];
+    rowOf = new byte[cells.length];
+    columnOf = new byte[cells.length];
+    for (int position = 0; position < cells.length; position++) {
+      rowOf[position] = (byte) (position / size);
+      columnOf[position] = (byte) (position % size);
+    }
+    for (int position = 0; position < cells.length; position++) {
+      int number = source.getTileNumber(position);
+      cells[position] = (byte) number;
+      if (number == cells.length - 1) {
+        blank = position;
+      } else if (number != position) {
+        misplaced++;
+        manhattan += Math.abs(rowOf[number] - rowOf[position])
+            + Math.abs(columnOf[number] - columnOf[position]);
+      }
+    }
+    if (size <= MAX_TRACKED_SIZE) {
+      rows = new int[size];
+      columns = new int[size];
+      powers = new int[size];
+      conflicts = conflicts(size);
+      for (int i = 0, power = 1; i < size; i++, power *= size + 1) {
+        powers[i] = power;
+      }
+      for (int position = 0; position < cells.length; position++) {
+        int row = rowOf[position];
+        int col = columnOf[position];
+        int number = cells[position];
+        int rowDigit = size;
+        int columnDigit = size;
+        if (number != cells.length - 1) {
+          rowDigit = digit(rowOf[number], row, columnOf[number]);
+          columnDigit = digit(columnOf[number], col, rowOf[number]);
+        }
+        rows[row] += rowDigit * powers[col];
+        columns[col] += columnDigit * powers[row];
+      }
+      for (int line = 0; line < size; line++) {
+        conflictCount += conflicts[rows[line]] + conflicts[columns[line]];
+      }
+    } else {
+      rows = null;
+      columns = null;
+      powers = null;
+      conflicts = null;
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public int getTileNumber(int position) {
+    return cells[position];
+  }
+
+  int getBlank() {
+    return blank;
+  }
+
+  boolean isSolved() {
+    return misplaced == 0;
+  }
+
+  /**
+   * Returns {@code true} if this board maintains the {@link LinearConflict} estimate, available
+   * from {@link #getLinearConflict()}.
+   */
+  boolean isTracked() {
+    return conflicts != null;
+  }
+
+  /**
+   * Returns the {@link LinearConflict} estimate of this board. This is valid only if {@link
+   * #isTracked()} returns {@code true}.
+   */
+  int getLinearConflict() {
+    return manhattan + 2 * conflictCount;
+  }
+
+  /**
+   * Starts tracking the row and column state indices of the specified {@link WalkingDistance}
+   * measure, so that its estimate is available from {@link #getWalkingDistance()}. This is valid
+   * only if {@link #isTracked()} returns {@code true}, and {@code walking} was constructed for the
+   * size of this board.
+   */
+  void track(WalkingDistance walking) {
+    this.walking = walking;
+    rowIndex = walking.getRowIndex(this);
+    columnIndex = walking.getColumnIndex(this);
+  }
+
+  /**
+   * Returns the {@link WalkingDistance} estimate of this board, from the state indices maintained
+   * since the most recent invocation of {@link #track(WalkingDistance)}.
+   */
+  int getWalkingDistance() {
+    return walking.getDistance(rowIndex) + walking.getDistance(columnIndex);
+  }
+
+  /**
+   * Slides the tile at the specified position into the empty space. A move is undone by sliding the
+   * same tile back, from the position of the empty space before the move.
+   */
+  void slide(int from) {
+    byte number = cells[from];
+    int to = blank;
+    misplaced += ((number == from) ? 1 : 0) - ((number == to) ? 1 : 0);
+    if (conflicts != null) {
+      int homeRow = rowOf[number];
+      int homeCol = columnOf[number];
+      int fromRow = rowOf[from];
+      int fromCol = columnOf[from];
+      int toRow = rowOf[to];
+      int toCol = columnOf[to];
+      manhattan += Math.abs(homeRow - toRow) - Math.abs(homeRow - fromRow)
+          + Math.abs(homeCol - toCol) - Math.abs(homeCol - fromCol);
+      if (fromCol == toCol) {
+        conflictCount += replace(rows, fromRow, digit(homeRow, fromRow, homeCol), size,
+            powers[fromCol])
+            + replace(rows, toRow, size, digit(homeRow, toRow, homeCol), powers[toCol]);
+        columns[fromCol] +=
+            (digit(homeCol, fromCol, homeRow) - size) * (powers[toRow] - powers[fromRow]);
+        if (walking != null) {
+          rowIndex = walking.nextIndex(rowIndex, fromRow, toRow, homeRow);
+        }
+      } else {
+        conflictCount += replace(columns, fromCol, digit(homeCol, fromCol, homeRow), size,
+            powers[fromRow])
+            + replace(columns, toCol, size, digit(homeCol, toCol, homeRow), powers[toRow]);
+        rows[fromRow] +=
+            (digit(homeRow, fromRow, homeCol) - size) * (powers[toCol] - powers[fromCol]);
+        if (walking != null) {
+          columnIndex = walking.nextIndex(columnIndex, fromCol, toCol, homeCol);
+        }
+      }
+    }
+    cells[to] = number;
+    cells[from] = (byte) (cells.length - 1);
+    blank = from;
+  }
+
+  /**
+   * Replaces digit {@code before} with {@code after} at the place with value {@code power} in the
+   * code of the specified line, returning the resulting change in the number of conflicts.
+   */
+  private int replace(int[] codes, int line, int before, int after, int power) {
+    int previous = codes[line];
+    int code = previous + (after - before) * power;
+    codes[line] = code;
+    return conflicts[code] - conflicts[previous];
+  }
+
+  /**
+   * Returns the digit encoding a tile in a line code: its order within its home line, if that is
+   * the specified line, or {@code size} otherwise.
+   */
+  private int digit(int homeLine, int line, int order) {
+    return (homeLine == line) ? order : size;
+  }
+
+  private static synchronized byte[] conflicts(int size) {
+    byte[] table = CONFLICTS[size];
+    if (table == null) {
+      int base = size + 1;
+      int length = 1;
+      for (int i = 0; i < size; i++) {
+        length *= base;
+      }
+      table = new byte[length];
+      int[] longest = new int[size];
+      int[] orders = new int[size];
+      for (int code = 0; code < length; code++) {
+        int count = 0;
+        int best = 0;
+        for (int i = 0, remaining = code; i < size; i++, remaining /= base) {
+          int order = remaining % base;
+          if (order != size) {
+            int run = 1;
+            for (int j = 0; j < count; j++) {
+              if (orders[j] < order && longest[j] + 1 > run) {
+                run = longest[j] + 1;
+              }
+            }
+            orders[count] = order;
+            longest[count] = run;
+            count++;
+            best = Math.max(best, run);
+          }
+        }
+        table[code] = (byte) (count - best);
+      }
+      CONFLICTS[size] = table;
+    }
+    return table;
+  }
+
+}
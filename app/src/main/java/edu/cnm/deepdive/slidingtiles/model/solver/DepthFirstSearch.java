@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import edu.cnm.deepdive.slidingtiles.model.metric.WalkingDistance;
+import java.util.Arrays;
+
+/**
+ * Bounded depth-first search on a working {@link Board}, shared by {@link IdaStarSolver} and {@link
+ * ParallelIdaStarSolver}. Moves are applied to the board in place and undone on return, and
+ * recorded in a path that grows as needed; moves that immediately undo the previous move are not
+ * generated. When the heuristic is {@link LinearConflict} or {@link WalkingDistance}, the estimate
+ * maintained by the board is used in place of {@link Measure#update(Arrangement, int, int)}.
+ */
+class DepthFirstSearch {
+
+  /** Result of {@link #search(int, int, int, int)} when the search has found a solution. */
+  static final int FOUND = -1;
+
+  private static final int INITIAL_PATH_LENGTH = 128;
+  private static final int UNTRACKED = 0;
+  private static final int LINEAR_CONFLICT = 1;
+  private static final int WALKING_DISTANCE = 2;
+
+  private final Board board;
+  private final Measure heuristic;
+  private final int tracking;
+  private final int[][] neighbors;
+  private int[] path;
+  private int length;
+  private long nodes;
+
+  DepthFirstSearch(Arrangement start, Measure heuristic) {
+    board = new Board(start);
+    this.heuristic = heuristic;
+    // A subclass of either measure might compute a different estimate, so only the classes
+    // themselves are replaced by the estimates tracked by the board.
+    if (heuristic.getClass() == LinearConflict.class && board.isTracked()) {
+      tracking = LINEAR_CONFLICT;
+    } else if (heuristic.getClass() == WalkingDistance.class && board.isTracked()) {
+      board.track((WalkingDistance) heuristic);
+      tracking = WALKING_DISTANCE;
+    } else {
+      tracking = UNTRACKED;
+    }
+    neighbors = Neighbors.of(board.getSize());
+    path = new int[INITIAL_PATH_LENGTH];
+    length = -1;
+  }
+
+  Board getBoard() {
+    return board;
+  }
+
+  int[][] getNeighbors() {
+    return neighbors;
+  }
+
+  /**
+   * Returns the heuristic estimate of the current arrangement of the board.
+   */
+  int measure() {
+    return (tracking != UNTRACKED) ? tracked() : heuristic.getMeasure(board);
+  }
+
+  /**
+   * Slides the tile at {@code from} into the empty space, records the move at {@code depth} in the
+   * path, and returns the updated estimate, given the estimate before the move.
+   */
+  int push(int depth, int from, int estimate) {
+    int move = Move.pack(from, board.getBlank());
+    board.slide(from);
+    if (depth == path.length) {
+      path = Arrays.copyOf(path, depth * 2);
+    }
+    path[depth] = move;
+    return (tracking != UNTRACKED) ? tracked() : heuristic.update(board, estimate, move);
+  }
+
+  private int tracked() {
+    return (tracking == LINEAR_CONFLICT) ? board.getLinearConflict() : board.getWalkingDistance();
+  }
+
+  /**
+   * Undoes the most recent {@link #push(int, int, int)}, given the position of the empty space
+   * before that move.
+   */
+  void pop(int blank) {
+    board.slide(blank);
+  }
+
+  /**
+   * Applies the specified packed moves, recording them at the start of the path, without
+   * evaluating the heuristic.
+   */
+  void replay(int[] moves, int offset, int count) {
+    if (count > path.length) {
+      path = Arrays.copyOf(path, count * 2);
+    }
+    for (int i = 0; i < count; i++) {
+      int move = moves[offset + i];
+      board.slide(Move.from(move));
+      path[i] = move;
+    }
+  }
+
+  /**
+   * Copies the first {@code depth} moves of the path to {@code destination}.
+   */
+  void copyPath(int depth, int[] destination, int offset) {
+    System.arraycopy(path, 0, destination, offset, depth);
+  }
+
+  /**
+   * Searches the subtree below the current arrangement of the board, reached at {@code depth}
+   * with the specified estimate, pruning paths whose length plus estimate exceeds {@code bound}.
+   *
+   * @return {@link #FOUND} if a solution was found (or the search was cancelled); otherwise, the
+   * smallest pruned value.
+   */
+  int search(int depth, int bound, int estimate, int previous) {
+    int total = depth + estimate;
+    if (total > bound) {
+      return total;
+    }
+    if (board.isSolved()) {
+      length = depth;
+      return FOUND;
+    }
+    if (isCancelled()) {
+      return FOUND;
+    }
+    nodes++;
+    int blank = board.getBlank();
+    int minimum = Integer.MAX_VALUE;
+    for (int from : neighbors[blank]) {
+      if (from != previous) {
+        int result = search(depth + 1, bound, push(depth, from, estimate), blank);
+        pop(blank);
+        if (result == FOUND) {
+          return FOUND;
+        }
+        minimum = Math.min(minimum, result);
+      }
+    }
+    return minimum;
+  }
+
+  /**
+   * Returns {@code true} if {@link #search(int, int, int, int)} should stop at the next node. By
+   * default, the search is never cancelled.
+   */
+  boolean isCancelled() {
+    return false;
+  }
+
+  /**
+   * Returns the solution found by {@link #search(int, int, int, int)}, or {@code null} if none has
+   * been found.
+   */
+  int[] getSolution() {
+    return (length >= 0) ? Arrays.copyOf(path, length) : null;
+  }
+
+  /**
+   * Returns the number of nodes expanded by {@link #search(int, int, int, int)}.
+   */
+  long getNodeCount() {
+    return nodes;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.Solvability;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import edu.cnm.deepdive.slidingtiles.model.metric.PatternDatabase;
+import edu.cnm.deepdive.slidingtiles.model.metric.WalkingDistance;
+
+/**
+ * Finds optimal (shortest) solutions using iterative-deepening A* (IDA*): a sequence of depth-first
+ * searches, each pruning paths whose length plus estimated remaining distance exceeds a bound, with
+ * the bound raised to the smallest pruned value after each unsuccessful search. Provided the
+ * {@link Measure} used as the heuristic is admissible (never overestimates the remaining distance),
+ * the first solution found is optimal.
+ * <p>
+ * The search runs on a single working copy of the starting arrangement, applying each move in place
+ * and undoing it on return; the heuristic is updated after each move with {@link
+ * Measure#update(Arrangement, int, int)}, and moves are recorded in a path that is only reallocated
+ * when it must grow, so nothing is allocated per node. Moves that immediately undo the previous
+ * move are not generated. By default, {@link LinearConflict} is used as the heuristic; in that
+ * case, the estimate is the one maintained by the working copy itself, using per-line lookup
+ * tables, which is several times faster than {@link LinearConflict#update(Arrangement, int, int)}.
+ * The working copy likewise maintains the {@link WalkingDistance} state indices when that is the
+ * heuristic.
+ * For hard 4 X 4 arrangements, a {@link PatternDatabase} reduces the number of nodes substantially.
+ * </p>
+ * <p>
+ * Instances are not safe for concurrent use by multiple threads.
+ * </p>
+ */
+public class IdaStarSolver {
+
+  private final Measure heuristic;
+  private long nodes;
+
+  /**
+   * Initializes this solver with {@link LinearConflict} as the heuristic.
+   */
+  public IdaStarSolver() {
+    this(new LinearConflict());
+  }
+
+  /**
+   * Initializes this solver with the specified heuristic.
+   *
+   * @param heuristic admissible measure of the distance from an arrangement to the solution.
+   */
+  public IdaStarSolver(Measure heuristic) {
+    this.heuristic = heuristic;
+  }
+
+  /**
+   * Returns an optimal sequence of single-tile moves that solves the specified arrangement. The
+   * arrangement itself is not modified.
+   *
+   * @param start arrangement to solve (e.g. a {@link Puzzle}).
+   * @return packed moves (see {@link Move#pack(int, int)}), in order; empty if {@code start} is
+   * already solved.
+   * @throws IllegalArgumentException if {@code start} is not solvable.
+   */
+  public int[] solve(Arrangement start) {
+    if (!Solvability.isSolvable(start)) {
+      throw new IllegalArgumentException();
+    }
+    DepthFirstSearch search = new DepthFirstSearch(start, heuristic);
+    int estimate = search.measure();
+    int bound = estimate;
+    int result;
+    while ((result = search.search(0, bound, estimate, -1)) != DepthFirstSearch.FOUND) {
+      bound = result;
+    }
+    nodes = search.getNodeCount();
+    return search.getSolution();
+  }
+
+  /**
+   * Returns the number of nodes expanded in the most recent invocation of {@link
+   * #solve(Arrangement)}, across all iterations.
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+}
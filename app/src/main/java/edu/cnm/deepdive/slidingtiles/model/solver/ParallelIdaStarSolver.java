@@ -0,0 +1,232 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Solvability;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds optimal (shortest) solutions using IDA* (see {@link IdaStarSolver}), searching the subtrees
+ * of each iteration in parallel. At the start of each iteration, the search tree is expanded (on
+ * the calling thread) to the shallowest depth at which there are enough nodes to keep all of the
+ * threads of a {@link ForkJoinPool} busy; the subtrees rooted at those nodes are then searched by
+ * tasks that split the range of subtrees in halves, so that idle threads steal work from busy ones.
+ * <p>
+ * All tasks of an iteration share its bound, the smallest pruned value seen so far (which becomes
+ * the bound of the next iteration), and the solution, if one has been found; once any task finds a
+ * solution, all others stop at their next node. Since every solution found in an iteration has a
+ * length equal to that iteration's bound, the solution is optimal, though it may differ from the
+ * one found by {@link IdaStarSolver}.
+ * </p>
+ * <p>
+ * The heuristic is evaluated concurrently by multiple threads, so it must be thread-safe (as are
+ * all of the {@link Measure} implementations in this project). Each subtree search runs on its own
+ * working copy of the starting arrangement, and allocates nothing per node; as in {@link
+ * IdaStarSolver}, the default {@link LinearConflict} estimate is maintained by that working copy.
+ * </p>
+ */
+public class ParallelIdaStarSolver {
+
+  private static final int TASKS_PER_THREAD = 32;
+
+  private final Measure heuristic;
+  private final ForkJoinPool pool;
+  private final LongAdder nodes;
+
+  /**
+   * Initializes this solver with {@link LinearConflict} as the heuristic, using the common pool.
+   */
+  public ParallelIdaStarSolver() {
+    this(new LinearConflict(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Initializes this solver with the specified heuristic and pool.
+   *
+   * @param heuristic thread-safe, admissible measure of the distance from an arrangement to the
+   *                  solution.
+   * @param pool      pool in which subtrees will be searched.
+   */
+  public ParallelIdaStarSolver(Measure heuristic, ForkJoinPool pool) {
+    this.heuristic = heuristic;
+    this.pool = pool;
+    nodes = new LongAdder();
+  }
+
+  /**
+   * Returns an optimal sequence of single-tile moves that solves the specified arrangement. The
+   * arrangement itself is not modified.
+   *
+   * @param start arrangement to solve.
+   * @return packed moves (see {@link Move#pack(int, int)}), in order; empty if {@code start} is
+   * already solved.
+   * @throws IllegalArgumentException if {@code start} is not solvable.
+   */
+  public int[] solve(Arrangement start) {
+    if (!Solvability.isSolvable(start)) {
+      throw new IllegalArgumentException();
+    }
+    nodes.reset();
+    int bound = heuristic.getMeasure(start);
+    int[] solution;
+    while (true) {
+      Iteration iteration = new Iteration(start, bound);
+      solution = iteration.run();
+      if (solution != null) {
+        return solution;
+      }
+      bound = iteration.nextBound.get();
+    }
+  }
+
+  /**
+   * Returns the number of nodes expanded in the most recent invocation of {@link
+   * #solve(Arrangement)}, across all iterations and threads.
+   */
+  public long getNodeCount() {
+    return nodes.sum();
+  }
+
+  private class Iteration {
+
+    private final Arrangement start;
+    private final int bound;
+    private final AtomicInteger nextBound;
+    private final AtomicReference<int[]> solution;
+    private volatile boolean found;
+    private int depth;
+    private int count;
+    private int[] prefixes;
+    private int[] estimates;
+
+    private Iteration(Arrangement start, int bound) {
+      this.start = start;
+      this.bound = bound;
+      nextBound = new AtomicInteger(Integer.MAX_VALUE);
+      solution = new AtomicReference<>();
+    }
+
+    private int[] run() {
+      int target = TASKS_PER_THREAD * pool.getParallelism();
+      DepthFirstSearch search = new DepthFirstSearch(start, heuristic);
+      do {
+        depth++;
+        count = 0;
+        prefixes = new int[depth * target];
+        estimates = new int[target];
+        expand(search, 0, search.measure(), -1);
+      } while (solution.get() == null && count > 0 && count < target && depth < bound);
+      if (solution.get() == null && count > 0) {
+        pool.invoke(new SubtreeTask(this, 0, count));
+      }
+      return solution.get();
+    }
+
+    private void expand(DepthFirstSearch search, int depth, int estimate, int previous) {
+      Board board = search.getBoard();
+      int total = depth + estimate;
+      if (total > bound) {
+        nextBound.accumulateAndGet(total, Math::min);
+      } else if (board.isSolved()) {
+        int[] path = new int[depth];
+        search.copyPath(depth, path, 0);
+        solve(path);
+      } else if (depth == this.depth) {
+        add(search, estimate);
+      } else {
+        nodes.increment();
+        int blank = board.getBlank();
+        for (int from : search.getNeighbors()[blank]) {
+          if (from != previous && !found) {
+            expand(search, depth + 1, search.push(depth, from, estimate), blank);
+            search.pop(blank);
+          }
+        }
+      }
+    }
+
+    private void add(DepthFirstSearch search, int estimate) {
+      if (count == estimates.length) {
+        estimates = Arrays.copyOf(estimates, count * 2);
+        prefixes = Arrays.copyOf(prefixes, depth * count * 2);
+      }
+      search.copyPath(depth, prefixes, depth * count);
+      estimates[count++] = estimate;
+    }
+
+    private void solve(int[] path) {
+      solution.compareAndSet(null, path);
+      found = true;
+    }
+
+  }
+
+  @SuppressWarnings("serial")
+  private class SubtreeTask extends RecursiveAction {
+
+    private final Iteration iteration;
+    private final int low;
+    private final int high;
+
+    private SubtreeTask(Iteration iteration, int low, int high) {
+      this.iteration = iteration;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+      if (iteration.found) {
+        return;
+      }
+      if (high - low > 1) {
+        int middle = (low + high) >>> 1;
+        invokeAll(new SubtreeTask(iteration, low, middle),
+            new SubtreeTask(iteration, middle, high));
+      } else {
+        DepthFirstSearch search = new DepthFirstSearch(iteration.start, heuristic) {
+          @Override
+          boolean isCancelled() {
+            return iteration.found;
+          }
+        };
+        int depth = iteration.depth;
+        int offset = depth * low;
+        search.replay(iteration.prefixes, offset, depth);
+        int previous = Move.to(iteration.prefixes[offset + depth - 1]);
+        int result = search.search(depth, iteration.bound, iteration.estimates[low], previous);
+        int[] solution = search.getSolution();
+        if (solution != null) {
+          iteration.solve(solution);
+        } else if (result != DepthFirstSearch.FOUND) {
+          iteration.nextBound.accumulateAndGet(result, Math::min);
+        }
+        nodes.add(search.getNodeCount());
+      }
+    }
+
+  }
+
+}
@@ -27,6 +27,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import edu.cnm.deepdive.slidingtiles.R;
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
 import edu.cnm.deepdive.slidingtiles.model.Tile;
 import java.util.Collection;
 
@@ -47,10 +48,10 @@ PuzzleAdapter extends ArrayAdapter<Tile> {
   private Bitmap[] tileImages;
   private Bitmap noTileImage;
 
-  public PuzzleAdapter(@NonNull Context context, @NonNull Tile[][] source,
+  public PuzzleAdapter(@NonNull Context context, @NonNull Arrangement source,
       @NonNull BitmapDrawable image, boolean overlayVisible) {
     super(context, R.layout.item_tile);
-    size = source.length;
+    size = source.getSize();
     this.overlayVisible = overlayVisible;
     tiles = new Tile[size * size];
     copyModelTiles(source);
@@ -125,9 +126,11 @@ PuzzleAdapter extends ArrayAdapter<Tile> {
     }
   }
 
-  private void copyModelTiles(Tile[][] source) {
+  private void copyModelTiles(Arrangement source) {
     for (int row = 0; row < size; row++) {
-      System.arraycopy(source[row], 0, tiles, row * size, size);
+      for (int col = 0; col < size; col++) {
+        tiles[row * size + col] = source.getTile(row, col);
+      }
     }
   }
 
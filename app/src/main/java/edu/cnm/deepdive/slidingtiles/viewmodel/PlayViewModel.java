@@ -35,32 +35,42 @@ import com.squareup.picasso.Picasso;
 import com.squareup.picasso.Picasso.LoadedFrom;
 import com.squareup.picasso.Target;
 import edu.cnm.deepdive.slidingtiles.R;
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
 import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
 import edu.cnm.deepdive.slidingtiles.model.Puzzle;
-import edu.cnm.deepdive.slidingtiles.model.Tile;
 import edu.cnm.deepdive.slidingtiles.model.metric.InPlace;
 import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import io.reactivex.Maybe;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 public class PlayViewModel extends AndroidViewModel
     implements LifecycleObserver, SharedPreferences.OnSharedPreferenceChangeListener {
 
   private static final long TIMER_INTERVAL = 250;
+  private static final long PROGRESS_INTERVAL = 100;
 
   private final MutableLiveData<Long> elapsedTime;
   private final MutableLiveData<Boolean> solved;
   private final MutableLiveData<Boolean> animateSlides;
   private final MutableLiveData<BitmapDrawable> image;
   private final MutableLiveData<String> title;
-  private final MutableLiveData<Tile[][]> tiles;
+  private final MutableLiveData<Arrangement> tiles;
   private final MutableLiveData<Integer> progress;
   private final MutableLiveData<Integer> moveCount;
   private final MutableLiveData<Boolean> paused;
+  private final Subject<Arrangement> arrangements;
+  private final CompositeDisposable pending;
   private final Measure measure;
   private final Random rng;
   private final String imagePrefKey;
@@ -85,11 +95,14 @@ public class PlayViewModel extends AndroidViewModel
     moveCount = new MutableLiveData<>();
     paused = new MutableLiveData<>(true);
     measure = new InPlace();
+    arrangements = PublishSubject.create();
+    pending = new CompositeDisposable();
     rng = new Random();
     imagePrefKey = application.getString(R.string.image_pref_key);
     sizePrefKey = application.getString(R.string.size_pref_key);
     animationPrefKey = application.getString(R.string.animation_pref_key);
     targets = new HashSet<>();
+    setupProgress();
     setupPreferences(application);
     createPuzzle();
   }
@@ -98,7 +111,7 @@ public class PlayViewModel extends AndroidViewModel
     return title;
   }
 
-  public LiveData<Tile[][]> getTiles() {
+  public LiveData<Arrangement> getTiles() {
     return tiles;
   }
 
@@ -177,6 +190,27 @@ public class PlayViewModel extends AndroidViewModel
     update();
   }
 
+  @Override
+  protected void onCleared() {
+    super.onCleared();
+    pending.clear();
+  }
+
+  private void setupProgress() {
+    // Measure snapshots off the main thread, at most once per interval (always including the most
+    // recent); a measurement still running when a newer snapshot arrives is abandoned, and one that
+    // fails is skipped, rather than terminating the stream.
+    pending.add(
+        arrangements
+            .throttleLatest(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS, true)
+            .switchMapMaybe((arrangement) ->
+                Maybe.fromCallable(() -> measure.getMeasure(arrangement))
+                    .subscribeOn(Schedulers.computation())
+                    .onErrorComplete())
+            .subscribe(progress::postValue)
+    );
+  }
+
   private void setupPreferences(@NonNull Context context) {
     SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(context);
     preferences.registerOnSharedPreferenceChangeListener(this);
@@ -191,8 +225,10 @@ public class PlayViewModel extends AndroidViewModel
       pauseTimer();
     }
     this.solved.setValue(solved);
-    tiles.setValue(puzzle.getTiles());
-    progress.setValue(measure.getMeasure(puzzle));
+    // Publish a snapshot that is never modified, so observers never see the puzzle change.
+    PackedState state = puzzle.getState();
+    tiles.setValue(state);
+    arrangements.onNext(state);
     moveCount.setValue(puzzle.getMoveCount());
   }
 
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks {@link MoveHistory} forking, trimming, and visited-arrangement queries against a simple
+ * list of recorded moves, and that {@link Puzzle#setHistoryLimit(int)} clears the history.
+ */
+public class MoveHistoryTest {
+
+  @Test
+  public void fork_addToBoth_branchesAreIndependent() {
+    MoveHistory original = new MoveHistory();
+    List<Long> shared = add(original, 0, 10);
+    MoveHistory fork = original.fork();
+    List<Long> originalKeys = new ArrayList<>(shared);
+    originalKeys.addAll(add(original, 100, 5));
+    List<Long> forkKeys = new ArrayList<>(shared);
+    forkKeys.addAll(add(fork, 200, 7));
+    assertHistory(originalKeys, MoveHistory.UNLIMITED, original);
+    assertHistory(forkKeys, MoveHistory.UNLIMITED, fork);
+    assertFalse(original.contains(200));
+    assertFalse(fork.contains(100));
+  }
+
+  @Test
+  public void add_atLimit_retainsNewestMoves() {
+    MoveHistory history = new MoveHistory(8);
+    List<Long> keys = add(history, 0, 100);
+    assertEquals(100, history.getCount());
+    assertEquals(8, history.getRetained());
+    assertHistory(keys, 8, history);
+    assertFalse(history.contains(91));
+    assertTrue(history.contains(92));
+  }
+
+  @Test
+  public void contains_acrossSegments_findsRetainedKeys() {
+    MoveHistory history = new MoveHistory();
+    add(history, 0, 3);
+    history = history.fork();
+    add(history, 10, 3);
+    history = history.fork();
+    add(history, 20, 3);
+    for (long base = 0; base <= 20; base += 10) {
+      for (long key = base; key < base + 3; key++) {
+        assertTrue(history.contains(key));
+      }
+      assertFalse(history.contains(base + 3));
+    }
+  }
+
+  @Test
+  public void fork_randomOperations_matchesList() {
+    Random rng = new Random(7);
+    int[] limits = {MoveHistory.UNLIMITED, 2, 5, 16, 40};
+    for (int limit : limits) {
+      List<MoveHistory> histories = new ArrayList<>();
+      List<List<Long>> expected = new ArrayList<>();
+      histories.add(new MoveHistory(limit));
+      expected.add(new ArrayList<>());
+      for (int step = 0; step < 5000; step++) {
+        int i = rng.nextInt(histories.size());
+        if (rng.nextInt(20) == 0 && histories.size() < 32) {
+          histories.add(histories.get(i).fork());
+          expected.add(new ArrayList<>(expected.get(i)));
+        } else {
+          // Keys are drawn from a small range, so that they recur in several segments.
+          long key = rng.nextInt(64);
+          histories.get(i).add((int) key, key);
+          expected.get(i).add(key);
+        }
+      }
+      for (int i = 0; i < histories.size(); i++) {
+        assertHistory(expected.get(i), limit, histories.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void setHistoryLimit_clearsHistory() {
+    Puzzle puzzle = new Puzzle(new PackedState(4));
+    long start = puzzle.getKey();
+    int[] positions = new int[4];
+    for (int i = 0; i < 10; i++) {
+      int blank = puzzle.getBlankPosition();
+      puzzle.apply(Move.pack(positions[i % puzzle.getLegalMoves(positions)], blank));
+    }
+    assertTrue(puzzle.hasVisited(start));
+    puzzle.setHistoryLimit(4);
+    assertEquals(0, puzzle.getMoveCount());
+    assertFalse(puzzle.hasVisited(start));
+  }
+
+  private static List<Long> add(MoveHistory history, long first, int count) {
+    List<Long> keys = new ArrayList<>();
+    for (long key = first; key < first + count; key++) {
+      history.add((int) key, key);
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  private static void assertHistory(List<Long> keys, int limit, MoveHistory history) {
+    int retained = (limit == MoveHistory.UNLIMITED) ? keys.size() : Math.min(limit, keys.size());
+    int first = keys.size() - retained;
+    assertEquals(keys.size(), history.getCount());
+    assertEquals(retained, history.getRetained());
+    for (int i = 0; i < retained; i++) {
+      long key = keys.get(first + i);
+      assertEquals((int) key, history.getMove(i));
+      assertEquals(key, history.getFromKey(i));
+    }
+    for (long key = 0; key < 256; key++) {
+      assertEquals(keys.subList(first, keys.size()).contains(key), history.contains(key));
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that {@link CachedMeasure} returns the values of the measure it wraps, for each kind of
+ * arrangement it computes keys for, and that its CLOCK eviction retains recently referenced values.
+ */
+public class CachedMeasureTest {
+
+  @Test
+  public void getMeasure_randomWalks_matchesDelegate() {
+    LinearConflict delegate = new LinearConflict();
+    CachedMeasure cached = new CachedMeasure(delegate, 256);
+    Random rng = new Random(17);
+    int[] positions = new int[4];
+    for (int size = 3; size <= 5; size++) {
+      Puzzle puzzle = new Puzzle(new PackedState(size));
+      int estimate = cached.getMeasure(puzzle);
+      for (int step = 0; step < 5000; step++) {
+        int blank = puzzle.getBlankPosition();
+        int move = Move.pack(positions[rng.nextInt(puzzle.getLegalMoves(positions))], blank);
+        puzzle.apply(move);
+        int expected = delegate.getMeasure(puzzle);
+        estimate = cached.update(puzzle, estimate, move);
+        assertEquals(expected, estimate);
+        assertEquals(expected, cached.getMeasure(puzzle));
+        assertEquals(expected, cached.getMeasure(puzzle.getState()));
+        assertEquals(expected, cached.getMeasure(view(puzzle)));
+      }
+    }
+    // The cache is smaller than the number of arrangements visited, but walks revisit them.
+    assertTrue(cached.getHits() > 0);
+    assertTrue(cached.getEvictions() > 0);
+  }
+
+  @Test
+  public void getMeasure_cachedValue_skipsDelegate() {
+    CountingMeasure delegate = new CountingMeasure();
+    CachedMeasure cached = new CachedMeasure(delegate, 16);
+    Puzzle puzzle = new Puzzle(4, new Random(17));
+    int value = cached.getMeasure(puzzle);
+    assertEquals(value, cached.getMeasure(puzzle));
+    assertEquals(value, cached.getMeasure(puzzle.getState()));
+    assertEquals(1, delegate.count);
+    assertEquals(2, cached.getHits());
+    assertEquals(1, cached.getMisses());
+  }
+
+  @Test
+  public void getMeasure_referencedValue_survivesEviction() {
+    CountingMeasure delegate = new CountingMeasure();
+    // With the smallest capacity, every key's window covers the whole table.
+    CachedMeasure cached = new CachedMeasure(delegate, 8);
+    Random rng = new Random(17);
+    PackedState kept = new PackedState(new Puzzle(4, rng));
+    int value = cached.getMeasure(kept);
+    for (int i = 0; i < 200; i++) {
+      cached.getMeasure(new PackedState(new Puzzle(4, rng)));
+      int count = delegate.count;
+      assertEquals(value, cached.getMeasure(kept));
+      assertEquals(count, delegate.count);
+    }
+    assertEquals(cached.getCapacity(), cached.getCount());
+    assertTrue(cached.getEvictions() > 0);
+  }
+
+  private static Arrangement view(Arrangement arrangement) {
+    // Neither a Puzzle nor a PackedState, so the key is computed by scanning the tiles.
+    return new Arrangement() {
+      @Override
+      public int getSize() {
+        return arrangement.getSize();
+      }
+
+      @Override
+      public int getTileNumber(int position) {
+        return arrangement.getTileNumber(position);
+      }
+    };
+  }
+
+  private static class CountingMeasure extends BaseMeasure {
+
+    private final ManhattanDistance manhattan = new ManhattanDistance();
+    private int count;
+
+    @Override
+    public int getMeasure(Arrangement arrangement) {
+      count++;
+      return manhattan.getMeasure(arrangement);
+    }
+
+  }
+
+}
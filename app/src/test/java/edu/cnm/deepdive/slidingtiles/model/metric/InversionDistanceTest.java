@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that {@link InversionDistance} never exceeds the length of a known path to the solution,
+ * that its inversion counts agree with a direct count of out-of-order pairs, and that its
+ * incremental updates agree with recomputation.
+ */
+public class InversionDistanceTest {
+
+  private static final int WALKS = 2000;
+  private static final int MAX_STEPS = 60;
+
+  private final InversionDistance measure = new InversionDistance();
+
+  @Test
+  public void getMeasure_knownPaths_isAdmissible() {
+    // Each of these is 12 moves from the solution.
+    assertAdmissible(5, 12, new int[]{
+        0, 1, 3, 8, 4, 5, 6, 2, 24, 14, 10, 11, 7, 9, 13, 15, 16, 12, 18, 19, 20, 21, 17, 22, 23
+    });
+    assertAdmissible(6, 12, new int[]{
+        0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 21, 26, 22, 23, 24,
+        31, 35, 20, 27, 28, 30, 32, 25, 33, 34, 29
+    });
+  }
+
+  @Test
+  public void getMeasure_randomWalks_isAdmissible() {
+    Random rng = new Random(18);
+    for (int size = 4; size <= 6; size++) {
+      for (int walk = 0; walk < WALKS; walk++) {
+        int steps = 1 + rng.nextInt(MAX_STEPS);
+        Puzzle puzzle = new Puzzle(new PackedState(size));
+        int vertical = 0;
+        int horizontal = 0;
+        int[] positions = new int[4];
+        for (int step = 0; step < steps; step++) {
+          int blank = puzzle.getBlankPosition();
+          int move = Move.pack(positions[rng.nextInt(puzzle.getLegalMoves(positions))], blank);
+          puzzle.apply(move);
+          vertical = measure.updateVertical(puzzle, vertical, move);
+          horizontal = measure.updateHorizontal(puzzle, horizontal, move);
+        }
+        assertEquals(measure.getVerticalInversions(puzzle), vertical);
+        assertEquals(measure.getHorizontalInversions(puzzle), horizontal);
+        assertTrue(measure.getMeasure(puzzle) <= steps);
+      }
+    }
+  }
+
+  @Test
+  public void getInversions_randomArrangements_matchesPairCount() {
+    Random rng = new Random(18);
+    // Sizes above 8 X 8 use the fallback count.
+    for (int size = 2; size <= 9; size++) {
+      int numCells = size * size;
+      for (int trial = 0; trial < 100; trial++) {
+        int[] cells = new int[numCells];
+        for (int position = 0; position < numCells; position++) {
+          int other = rng.nextInt(position + 1);
+          cells[position] = cells[other];
+          cells[other] = position;
+        }
+        Arrangement arrangement = arrangement(size, cells);
+        int[] transposed = new int[numCells];
+        for (int position = 0; position < numCells; position++) {
+          int number = cells[(position % size) * size + position / size];
+          transposed[position] =
+              (number == numCells - 1) ? number : (number % size) * size + number / size;
+        }
+        assertEquals(pairs(cells), measure.getVerticalInversions(arrangement));
+        assertEquals(pairs(transposed), measure.getHorizontalInversions(arrangement));
+      }
+    }
+  }
+
+  @Test
+  public void getDistance_4x4_matchesTakahashi() {
+    for (int inversions = 0; inversions <= 105; inversions++) {
+      assertEquals(2 * (inversions / 3 + inversions % 3),
+          measure.getDistance(4, inversions, inversions));
+    }
+  }
+
+  private static int pairs(int[] cells) {
+    int blank = cells.length - 1;
+    int pairs = 0;
+    for (int i = 0; i < cells.length; i++) {
+      for (int j = i + 1; j < cells.length; j++) {
+        if (cells[i] != blank && cells[j] != blank && cells[i] > cells[j]) {
+          pairs++;
+        }
+      }
+    }
+    return pairs;
+  }
+
+  private static Arrangement arrangement(int size, int[] cells) {
+    return new Arrangement() {
+      @Override
+      public int getSize() {
+        return size;
+      }
+
+      @Override
+      public int getTileNumber(int position) {
+        return cells[position];
+      }
+    };
+  }
+
+  private void assertAdmissible(int size, int distance, int[] cells) {
+    assertTrue(measure.getMeasure(new PackedState(size, cells)) <= distance);
+  }
+
+}
@@ -0,0 +1,327 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Ranking;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible benchmark of the admissible {@link Measure} implementations, run on the development
+ * machine (host) with {@code main}. For each measure, the benchmark reports the mean gap between
+ * the measure and the exact solution length, the fraction of arrangements for which the measure is
+ * exact, the mean evaluation time, and the effective branching factor of an IDA* search guided by
+ * the measure. ({@link InPlace} is a progress indicator rather than a distance estimate, and is not
+ * included.)
+ * <p>
+ * On the 3 X 3 puzzle, exact distances of all 181,440 solvable arrangements are computed by
+ * breadth-first search, and the IDA* statistics are taken from a fixed sample. On the 4 X 4 puzzle,
+ * the reference corpus is a fixed set of arrangements generated by seeded random walks from the
+ * solved arrangement, and solved exactly by IDA* using the maximum of the strongest measures.
+ * Searches that exceed a node limit are not included in the branching factor, and are counted
+ * separately.
+ * </p>
+ * <p>
+ * The effective branching factor <i>b</i> of a search that generates <i>N</i> nodes to find a
+ * solution of length <i>d</i> is the branching factor of a uniform tree of depth <i>d</i> with
+ * <i>N</i> nodes, i.e. <code>N = 1 + b + b<sup>2</sup> + &hellip; + b<sup>d</sup></code>.
+ * </p>
+ */
+public class MeasureBenchmark {
+
+  private static final long SEED = 0x5EED_2020L;
+  private static final int SAMPLE_SIZE = 200;
+  private static final int CORPUS_SIZE = 40;
+  private static final int WALK_LENGTH = 60;
+  private static final long NODE_LIMIT = 20_000_000L;
+  private static final long MIN_TIMING_NANOS = 200_000_000L;
+  private static final int FOUND = -1;
+
+  private static int sink;
+
+  /**
+   * Runs the benchmark, writing a report to standard output.
+   *
+   * @param args command-line arguments (ignored).
+   */
+  public static void main(String[] args) {
+    Map<String, Measure> small = new LinkedHashMap<>();
+    small.put("OutOfPlace", new OutOfPlace());
+    small.put("ManhattanDistance", new ManhattanDistance());
+    small.put("LinearConflict", new LinearConflict());
+    small.put("InversionDistance", new InversionDistance());
+    small.put("WalkingDistance", new WalkingDistance(3));
+    small.put("PatternDatabase 4-4",
+        PatternDatabase.build(3, new int[][]{{0, 1, 2, 3}, {4, 5, 6, 7}}));
+    List<Case> exhaustive = exhaustive(3);
+    report("3 X 3 (exhaustive)", small, exhaustive, sample(exhaustive));
+
+    Map<String, Measure> large = new LinkedHashMap<>();
+    large.put("OutOfPlace", new OutOfPlace());
+    large.put("ManhattanDistance", new ManhattanDistance());
+    large.put("LinearConflict", new LinearConflict());
+    large.put("InversionDistance", new InversionDistance());
+    large.put("WalkingDistance", new WalkingDistance(4));
+    large.put("PatternDatabase 5-5-5", PatternDatabase.build(4,
+        new int[][]{{0, 1, 2, 3, 4}, {5, 6, 7, 8, 9}, {10, 11, 12, 13, 14}}));
+    List<Case> corpus = corpus(4, new Maximum(large.get("LinearConflict"),
+        large.get("WalkingDistance"), large.get("PatternDatabase 5-5-5")));
+    report("4 X 4 (reference corpus)", large, corpus, corpus);
+  }
+
+  private static void report(String title, Map<String, Measure> measures, List<Case> cases,
+      List<Case> searchCases) {
+    System.out.printf("%s: %,d arrangements, %,d searched%n", title, cases.size(),
+        searchCases.size());
+    System.out.printf("%-24s %10s %10s %10s %10s %14s %8s%n",
+        "measure", "mean gap", "tight", "ns/op", "EBF", "mean nodes", "aborted");
+    for (Map.Entry<String, Measure> entry : measures.entrySet()) {
+      Measure measure = entry.getValue();
+      long gap = 0;
+      int tight = 0;
+      for (Case c : cases) {
+        int estimate = measure.getMeasure(c.state);
+        if (estimate > c.distance) {
+          throw new IllegalStateException(entry.getKey() + " is inadmissible for " + c.state);
+        }
+        gap += c.distance - estimate;
+        tight += (estimate == c.distance) ? 1 : 0;
+      }
+      double branching = 0;
+      long nodes = 0;
+      int solved = 0;
+      int aborted = 0;
+      for (Case c : searchCases) {
+        Search search = new Search(measure, c.state);
+        int length = search.solve();
+        if (length < 0) {
+          aborted++;
+        } else if (length > 0) {
+          if (length != c.distance) {
+            throw new IllegalStateException(entry.getKey() + " found a non-optimal solution");
+          }
+          branching += branchingFactor(search.nodes, length);
+          nodes += search.nodes;
+          solved++;
+        }
+      }
+      System.out.printf("%-24s %10.3f %9.1f%% %10.1f %10s %14s %8d%n",
+          entry.getKey(), (double) gap / cases.size(), 100.0 * tight / cases.size(),
+          nanosPerOperation(measure, cases),
+          (solved > 0) ? String.format("%.3f", branching / solved) : "-",
+          (solved > 0) ? String.format("%,d", nodes / solved) : "-",
+          aborted);
+    }
+    System.out.println();
+  }
+
+  private static List<Case> exhaustive(int size) {
+    int numCells = size * size;
+    int count = (int) Ranking.count(numCells, numCells);
+    byte[] distances = new byte[count];
+    Arrays.fill(distances, (byte) -1);
+    int[] queue = new int[count / 2];
+    int[] neighbors = new int[4];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = (int) Ranking.rank(new PackedState(size));
+    distances[queue[0]] = 0;
+    List<Case> cases = new ArrayList<>(queue.length);
+    while (head < tail) {
+      int rank = queue[head++];
+      PackedState state = Ranking.unrank(size, rank);
+      cases.add(new Case(state, distances[rank]));
+      int moves = Neighbors.fill(size, state.getBlank(), neighbors);
+      for (int i = 0; i < moves; i++) {
+        PackedState next = new PackedState(state);
+        next.slide(neighbors[i]);
+        int nextRank = (int) Ranking.rank(next);
+        if (distances[nextRank] < 0) {
+          distances[nextRank] = (byte) (distances[rank] + 1);
+          queue[tail++] = nextRank;
+        }
+      }
+    }
+    return cases;
+  }
+
+  private static List<Case> sample(List<Case> cases) {
+    SplittableRandom rng = new SplittableRandom(SEED);
+    List<Case> sample = new ArrayList<>(SAMPLE_SIZE);
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      sample.add(cases.get(rng.nextInt(cases.size())));
+    }
+    return sample;
+  }
+
+  private static List<Case> corpus(int size, Measure reference) {
+    SplittableRandom rng = new SplittableRandom(SEED + size);
+    int[] neighbors = new int[4];
+    List<Case> corpus = new ArrayList<>(CORPUS_SIZE);
+    for (int i = 0; i < CORPUS_SIZE; i++) {
+      PackedState state = new PackedState(size);
+      int previous = -1;
+      for (int step = 0; step < WALK_LENGTH; step++) {
+        int moves = Neighbors.fill(size, state.getBlank(), neighbors);
+        int from;
+        do {
+          from = neighbors[rng.nextInt(moves)];
+        } while (from == previous);
+        previous = state.getBlank();
+        state.slide(from);
+      }
+      int distance = new Search(reference, state).solve();
+      if (distance < 0) {
+        throw new IllegalStateException("Unable to solve reference arrangement " + state);
+      }
+      corpus.add(new Case(state, distance));
+    }
+    return corpus;
+  }
+
+  private static double nanosPerOperation(Measure measure, List<Case> cases) {
+    double best = Double.MAX_VALUE;
+    long total = 0;
+    int sum = 0;
+    while (total < MIN_TIMING_NANOS) {
+      long start = System.nanoTime();
+      for (Case c : cases) {
+        sum += measure.getMeasure(c.state);
+      }
+      long elapsed = System.nanoTime() - start;
+      total += elapsed;
+      best = Math.min(best, (double) elapsed / cases.size());
+    }
+    sink += sum;
+    return best;
+  }
+
+  private static double branchingFactor(long nodes, int depth) {
+    double low = 1;
+    double high = nodes;
+    for (int i = 0; i < 100; i++) {
+      double b = (low + high) / 2;
+      double total = 1;
+      double term = 1;
+      for (int level = 0; level < depth && total <= nodes; level++) {
+        term *= b;
+        total += term;
+      }
+      if (total > nodes) {
+        high = b;
+      } else {
+        low = b;
+      }
+    }
+    return (low + high) / 2;
+  }
+
+  private static class Case {
+
+    private final PackedState state;
+    private final int distance;
+
+    private Case(PackedState state, int distance) {
+      this.state = state;
+      this.distance = distance;
+    }
+
+  }
+
+  private static class Maximum extends BaseMeasure {
+
+    private final Measure[] measures;
+
+    private Maximum(Measure... measures) {
+      this.measures = measures;
+    }
+
+    @Override
+    public int getMeasure(Arrangement arrangement) {
+      int maximum = 0;
+      for (Measure measure : measures) {
+        maximum = Math.max(maximum, measure.getMeasure(arrangement));
+      }
+      return maximum;
+    }
+
+  }
+
+  private static class Search {
+
+    private final Measure measure;
+    private final PackedState state;
+    private final int[][] neighbors;
+    private long nodes;
+
+    private Search(Measure measure, PackedState start) {
+      this.measure = measure;
+      state = new PackedState(start);
+      neighbors = Neighbors.of(start.getSize());
+    }
+
+    private int solve() {
+      int bound = measure.getMeasure(state);
+      while (true) {
+        int next = search(0, bound, -1);
+        if (next == FOUND) {
+          return bound;
+        }
+        if (nodes > NODE_LIMIT) {
+          return -1;
+        }
+        bound = next;
+      }
+    }
+
+    private int search(int depth, int bound, int previous) {
+      nodes++;
+      int estimate = measure.getMeasure(state);
+      if (depth + estimate > bound) {
+        return depth + estimate;
+      }
+      if (estimate == 0 && state.isSolved()) {
+        return FOUND;
+      }
+      if (nodes > NODE_LIMIT) {
+        return Integer.MAX_VALUE;
+      }
+      int blank = state.getBlank();
+      int minimum = Integer.MAX_VALUE;
+      for (int from : neighbors[blank]) {
+        if (from != previous) {
+          state.slide(from);
+          int result = search(depth + 1, bound, blank);
+          state.slide(blank);
+          if (result == FOUND) {
+            return FOUND;
+          }
+          minimum = Math.min(minimum, result);
+        }
+      }
+      return minimum;
+    }
+
+  }
+
+}
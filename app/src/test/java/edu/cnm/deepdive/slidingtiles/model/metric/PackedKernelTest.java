@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that the {@link PackedKernel} kernels, and the batch methods of {@link ManhattanDistance},
+ * {@link OutOfPlace}, and {@link InPlace} (which use those kernels, or {@link Batch}), agree with
+ * the scalar {@code getMeasure} of each measure, for random arrangements. Batches both smaller and
+ * larger than {@link Batch#PARALLEL_THRESHOLD} are checked, so that both the sequential and
+ * parallel paths are used.
+ */
+public class PackedKernelTest {
+
+  private static final int[] COUNTS = {1, 100, 5 * Batch.PARALLEL_THRESHOLD + 17};
+
+  private final Random rng = new Random(16);
+
+  @Test
+  public void manhattan_randomStates_matchesMeasure() {
+    ManhattanDistance measure = new ManhattanDistance();
+    for (PackedState state : states(4, 2000)) {
+      assertEquals(measure.getMeasure(state), PackedKernel.manhattan(state.toLong()));
+    }
+  }
+
+  @Test
+  public void misplaced_randomStates_matchesMeasure() {
+    OutOfPlace measure = new OutOfPlace();
+    for (int size = PackedState.MIN_SIZE; size <= 4; size++) {
+      for (PackedState state : states(size, 2000)) {
+        assertEquals(measure.getMeasure(state), PackedKernel.misplaced(size, state.toLong()));
+      }
+    }
+  }
+
+  @Test
+  public void getMeasures_randomStates_matchesMeasure() {
+    Measure[] measures = {new ManhattanDistance(), new OutOfPlace(), new InPlace()};
+    for (int size = 3; size <= 4; size++) {
+      for (int count : COUNTS) {
+        List<PackedState> states = states(size, count);
+        long[] words = new long[count];
+        for (int i = 0; i < count; i++) {
+          words[i] = states.get(i).toLong();
+        }
+        for (Measure measure : measures) {
+          int[] expected = new int[count];
+          for (int i = 0; i < count; i++) {
+            expected[i] = measure.getMeasure(states.get(i));
+          }
+          int[] scores = new int[count];
+          measure.getMeasures(size, words, scores);
+          assertArrayEquals(expected, scores);
+          scores = new int[count];
+          LongBuffer buffer = LongBuffer.allocate(count + 1);
+          buffer.put(0L).put(words).position(1);
+          measure.getMeasures(size, buffer, scores);
+          assertArrayEquals(expected, scores);
+          assertEquals(1, buffer.position());
+          scores = new int[count];
+          measure.getMeasures(states, scores);
+          assertArrayEquals(expected, scores);
+        }
+      }
+    }
+  }
+
+  private List<PackedState> states(int size, int count) {
+    int numCells = size * size;
+    int[] cells = new int[numCells];
+    List<PackedState> states = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      for (int position = 0; position < numCells; position++) {
+        int other = rng.nextInt(position + 1);
+        cells[position] = cells[other];
+        cells[other] = position;
+      }
+      states.add(new PackedState(size, cells));
+    }
+    return states;
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that the {@link WalkingDistance} state indices maintained incrementally along random walks
+ * agree with recomputation, and that the resulting estimate never exceeds the length of the walk.
+ */
+public class WalkingDistanceTest {
+
+  private static final int WALKS = 500;
+  private static final int MAX_STEPS = 80;
+
+  @Test
+  public void nextIndex_randomWalks_matchesMeasure() {
+    Random rng = new Random(14);
+    int[] positions = new int[4];
+    for (int size = WalkingDistance.MIN_SIZE; size <= WalkingDistance.MAX_SIZE; size++) {
+      WalkingDistance measure = new WalkingDistance(size);
+      for (int walk = 0; walk < WALKS; walk++) {
+        int steps = 1 + rng.nextInt(MAX_STEPS);
+        Puzzle puzzle = new Puzzle(new PackedState(size));
+        int rowIndex = measure.getRowIndex(puzzle);
+        int columnIndex = measure.getColumnIndex(puzzle);
+        for (int step = 0; step < steps; step++) {
+          int blank = puzzle.getBlankPosition();
+          int from = positions[rng.nextInt(puzzle.getLegalMoves(positions))];
+          int number = puzzle.getTileNumber(from);
+          puzzle.apply(Move.pack(from, blank));
+          if (from % size == blank % size) {
+            rowIndex = measure.nextIndex(rowIndex, from / size, blank / size, number / size);
+          } else {
+            columnIndex = measure.nextIndex(columnIndex, from % size, blank % size, number % size);
+          }
+          assertTrue(rowIndex != WalkingDistance.NONE && columnIndex != WalkingDistance.NONE);
+        }
+        assertEquals(measure.getRowIndex(puzzle), rowIndex);
+        assertEquals(measure.getColumnIndex(puzzle), columnIndex);
+        int distance = measure.getDistance(rowIndex) + measure.getDistance(columnIndex);
+        assertEquals(measure.getMeasure(puzzle), distance);
+        assertTrue(distance <= steps);
+      }
+    }
+  }
+
+}
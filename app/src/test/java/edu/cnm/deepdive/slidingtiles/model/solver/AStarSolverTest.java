@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that {@link AStarSolver} finds optimal solutions (against exact breadth-first distances
+ * for the 3 X 3 puzzle, and against {@link IdaStarSolver} for the 4 X 4 puzzle), that its solutions
+ * actually solve the puzzle, and that it gives up when the node limit is reached.
+ */
+public class AStarSolverTest {
+
+  @Test
+  public void solve_solved_isEmpty() {
+    assertEquals(0, new AStarSolver().solve(new PackedState(4)).length);
+  }
+
+  @Test
+  public void solve_3x3_isOptimal() {
+    AStarSolver solver = new AStarSolver();
+    Random rng = new Random(22);
+    for (int i = 0; i < 300; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      int[] solution = solver.solve(puzzle);
+      assertEquals(Distances.of3x3(puzzle), solution.length);
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_4x4_matchesIdaStar() {
+    AStarSolver solver = new AStarSolver();
+    IdaStarSolver reference = new IdaStarSolver();
+    Random rng = new Random(22);
+    for (int i = 0; i < 10; i++) {
+      Puzzle puzzle = walk(4, 60, rng);
+      int[] solution = solver.solve(puzzle);
+      assertEquals(reference.solve(puzzle).length, solution.length);
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_nodeLimit_returnsNull() {
+    AStarSolver solver = new AStarSolver(new LinearConflict(), 100);
+    Puzzle puzzle = new Puzzle(4, new Random(22));
+    assertNull(solver.solve(puzzle));
+    assertEquals(100, solver.getGeneratedCount());
+  }
+
+  private static void assertSolves(Puzzle puzzle, int[] solution) {
+    Puzzle replay = new Puzzle(puzzle, false);
+    for (int move : solution) {
+      assertTrue(replay.apply(move));
+    }
+    assertTrue(replay.isSolved());
+  }
+
+  private static Puzzle walk(int size, int steps, Random rng) {
+    Puzzle puzzle = new Puzzle(new PackedState(size));
+    int[] positions = new int[4];
+    for (int step = 0; step < steps; step++) {
+      int blank = puzzle.getBlankPosition();
+      puzzle.apply(Move.pack(positions[rng.nextInt(puzzle.getLegalMoves(positions))], blank));
+    }
+    return puzzle;
+  }
+
+}
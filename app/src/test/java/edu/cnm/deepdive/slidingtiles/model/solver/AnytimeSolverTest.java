@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that {@link AnytimeSolver} finds optimal solutions (against exact breadth-first distances
+ * for the 3 X 3 puzzle) when its budget allows, that a solution found within a smaller budget is
+ * no longer than its weight allows, and that its solutions actually solve the puzzle.
+ */
+public class AnytimeSolverTest {
+
+  private static final long TIME_BUDGET = 60_000;
+  private static final long NODE_BUDGET = 10_000_000;
+
+  @Test
+  public void solve_3x3_isOptimal() {
+    AnytimeSolver solver = new AnytimeSolver();
+    Random rng = new Random(25);
+    for (int i = 0; i < 100; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      int[] solution = solver.solve(puzzle, TIME_BUDGET, NODE_BUDGET);
+      assertTrue(solver.isOptimal());
+      assertEquals(Distances.of3x3(puzzle), solution.length);
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_smallNodeBudget_isWithinWeight() {
+    AnytimeSolver solver = new AnytimeSolver();
+    Random rng = new Random(25);
+    long[] budgets = {20, 50, 200, 1000};
+    for (int i = 0; i < 100; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      int optimal = Distances.of3x3(puzzle);
+      for (long budget : budgets) {
+        int[] solution = solver.solve(puzzle, TIME_BUDGET, budget);
+        if (solution != null) {
+          assertTrue(solution.length * AnytimeSolver.WEIGHT_SCALE
+              <= solver.getBestWeight() * optimal);
+          assertTrue(!solver.isOptimal() || solution.length == optimal);
+          assertSolves(puzzle, solution);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void solve_4x4_solvesPuzzle() {
+    AnytimeSolver solver = new AnytimeSolver();
+    Random rng = new Random(25);
+    for (int i = 0; i < 10; i++) {
+      Puzzle puzzle = walk(4, 80, rng);
+      int[] solution = solver.solve(puzzle, TIME_BUDGET, 100_000);
+      assertSolves(puzzle, solution);
+      assertTrue(solution.length <= 80);
+    }
+  }
+
+  @Test
+  public void solve_returnedSolution_isCopy() {
+    AnytimeSolver solver = new AnytimeSolver();
+    Puzzle puzzle = new Puzzle(3, new Random(25));
+    int[] solution = solver.solve(puzzle, TIME_BUDGET, NODE_BUDGET);
+    int[] expected = solution.clone();
+    solution[0] = -1;
+    assertArrayEquals(expected, solver.getBestSolution());
+  }
+
+  private static void assertSolves(Puzzle puzzle, int[] solution) {
+    Puzzle replay = new Puzzle(puzzle, false);
+    for (int move : solution) {
+      assertTrue(replay.apply(move));
+    }
+    assertTrue(replay.isSolved());
+  }
+
+  private static Puzzle walk(int size, int steps, Random rng) {
+    Puzzle puzzle = new Puzzle(new PackedState(size));
+    int[] positions = new int[4];
+    for (int step = 0; step < steps; step++) {
+      int blank = puzzle.getBlankPosition();
+      puzzle.apply(Move.pack(positions[rng.nextInt(puzzle.getLegalMoves(positions))], blank));
+    }
+    return puzzle;
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Ranking;
+import java.util.Arrays;
+
+/**
+ * Exact distances to the solution of every 3 X 3 arrangement, computed once by breadth-first search
+ * from the solved arrangement, against which the solver tests check optimality.
+ */
+final class Distances {
+
+  private static final int NUM_3X3_STATES = 362_880;
+
+  private static byte[] distances3x3;
+
+  private Distances() {
+  }
+
+  /**
+   * Returns the number of moves in a shortest solution of the specified 3 X 3 arrangement.
+   */
+  static synchronized int of3x3(Arrangement arrangement) {
+    if (distances3x3 == null) {
+      distances3x3 = compute3x3();
+    }
+    return distances3x3[(int) Ranking.rank(arrangement)];
+  }
+
+  private static byte[] compute3x3() {
+    byte[] distances = new byte[NUM_3X3_STATES];
+    Arrays.fill(distances, (byte) -1);
+    int[] queue = new int[NUM_3X3_STATES];
+    int head = 0;
+    int tail = 0;
+    int[] positions = new int[4];
+    int solved = (int) Ranking.rank(new PackedState(3));
+    distances[solved] = 0;
+    queue[tail++] = solved;
+    while (head < tail) {
+      int rank = queue[head++];
+      PackedState state = Ranking.unrank(3, rank);
+      int count = Neighbors.fill(3, state.getBlank(), positions);
+      for (int i = 0; i < count; i++) {
+        PackedState neighbor = new PackedState(state);
+        neighbor.slide(positions[i]);
+        int neighborRank = (int) Ranking.rank(neighbor);
+        if (distances[neighborRank] < 0) {
+          distances[neighborRank] = (byte) (distances[rank] + 1);
+          queue[tail++] = neighborRank;
+        }
+      }
+    }
+    return distances;
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.Neighbors;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.metric.BaseMeasure;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.ManhattanDistance;
+import edu.cnm.deepdive.slidingtiles.model.metric.WalkingDistance;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Checks that {@link IdaStarSolver} finds optimal solutions (against exact breadth-first distances
+ * for the 3 X 3 puzzle), that its solutions actually solve the puzzle, and that the linear conflict
+ * and walking distance estimates maintained by {@link Board} agree with {@link LinearConflict} and
+ * {@link WalkingDistance}.
+ */
+public class IdaStarSolverTest {
+
+  @Test
+  public void solve_3x3_isOptimal() {
+    IdaStarSolver solver = new IdaStarSolver();
+    Random rng = new Random(21);
+    for (int i = 0; i < 300; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      int[] solution = solver.solve(puzzle);
+      assertEquals(Distances.of3x3(puzzle), solution.length);
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_4x4_solvesPuzzle() {
+    IdaStarSolver solver = new IdaStarSolver();
+    Random rng = new Random(21);
+    for (int i = 0; i < 20; i++) {
+      Puzzle puzzle = walk(4, 80, rng);
+      int[] solution = solver.solve(puzzle);
+      assertTrue(solution.length <= 80);
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_trackedEstimate_matchesMeasure() {
+    IdaStarSolver tracked = new IdaStarSolver();
+    // A subclass is not replaced by the estimate tracked by the board.
+    IdaStarSolver measured = new IdaStarSolver(new LinearConflict() {});
+    Random rng = new Random(21);
+    for (int i = 0; i < 10; i++) {
+      Puzzle puzzle = walk(4, 60, rng);
+      int[] solution = tracked.solve(puzzle);
+      assertEquals(solution.length, measured.solve(puzzle).length);
+      assertEquals(tracked.getNodeCount(), measured.getNodeCount());
+    }
+  }
+
+  @Test
+  public void solve_trackedWalkingDistance_matchesMeasure() {
+    IdaStarSolver tracked = new IdaStarSolver(new WalkingDistance(4));
+    IdaStarSolver measured = new IdaStarSolver(new WalkingDistance(4) {});
+    Random rng = new Random(21);
+    for (int i = 0; i < 10; i++) {
+      Puzzle puzzle = walk(4, 60, rng);
+      int[] solution = tracked.solve(puzzle);
+      assertEquals(solution.length, measured.solve(puzzle).length);
+      assertEquals(tracked.getNodeCount(), measured.getNodeCount());
+      assertSolves(puzzle, solution);
+    }
+  }
+
+  @Test
+  public void solve_inadmissibleMeasure_solvesPuzzle() {
+    // Overestimates, so the goal may be found below the bound of the last iteration.
+    ManhattanDistance manhattan = new ManhattanDistance();
+    IdaStarSolver solver = new IdaStarSolver(new BaseMeasure() {
+      @Override
+      public int getMeasure(Arrangement arrangement) {
+        return 3 * manhattan.getMeasure(arrangement);
+      }
+    });
+    Random rng = new Random(21);
+    for (int i = 0; i < 100; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      assertSolves(puzzle, solver.solve(puzzle));
+    }
+  }
+
+  @Test
+  public void board_linearConflict_matchesMeasure() {
+    LinearConflict measure = new LinearConflict();
+    Random rng = new Random(21);
+    int[] positions = new int[4];
+    for (int size = 2; size <= 6; size++) {
+      Board board = new Board(new Puzzle(size, rng));
+      assertTrue(board.isTracked());
+      for (int step = 0; step < 1000; step++) {
+        int count = Neighbors.fill(size, board.getBlank(), positions);
+        board.slide(positions[rng.nextInt(count)]);
+        assertEquals(measure.getMeasure(board), board.getLinearConflict());
+      }
+    }
+  }
+
+  @Test
+  public void board_walkingDistance_matchesMeasure() {
+    Random rng = new Random(21);
+    int[] positions = new int[4];
+    for (int size = WalkingDistance.MIN_SIZE; size <= WalkingDistance.MAX_SIZE; size++) {
+      WalkingDistance measure = new WalkingDistance(size);
+      Board board = new Board(new Puzzle(size, rng));
+      board.track(measure);
+      assertEquals(measure.getMeasure(board), board.getWalkingDistance());
+      for (int step = 0; step < 1000; step++) {
+        int count = Neighbors.fill(size, board.getBlank(), positions);
+        board.slide(positions[rng.nextInt(count)]);
+        assertEquals(measure.getMeasure(board), board.getWalkingDistance());
+      }
+    }
+  }
+
+  private static void assertSolves(Puzzle puzzle, int[] solution) {
+    Puzzle replay = new Puzzle(puzzle, false);
+    for (int move : solution) {
+      assertTrue(replay.apply(move));
+    }
+    assertTrue(replay.isSolved());
+  }
+
+  private static Puzzle walk(int size, int steps, Random rng) {
+    Puzzle puzzle = new Puzzle(new PackedState(size));
+    int[] positions = new int[4];
+    for (int step = 0; step < steps; step++) {
+      int blank = puzzle.getBlankPosition();
+      puzzle.apply(Move.pack(positions[rng.nextInt(puzzle.getLegalMoves(positions))], blank));
+    }
+    return puzzle;
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2020 CNM Ingenuity, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.slidingtiles.model.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.slidingtiles.model.Arrangement;
+import edu.cnm.deepdive.slidingtiles.model.Move;
+import edu.cnm.deepdive.slidingtiles.model.PackedState;
+import edu.cnm.deepdive.slidingtiles.model.Puzzle;
+import edu.cnm.deepdive.slidingtiles.model.metric.BaseMeasure;
+import edu.cnm.deepdive.slidingtiles.model.metric.LinearConflict;
+import edu.cnm.deepdive.slidingtiles.model.metric.ManhattanDistance;
+import edu.cnm.deepdive.slidingtiles.model.metric.Measure;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that {@link ParallelIdaStarSolver} finds solutions of the same (optimal) length as {@link
+ * IdaStarSolver}, and that those solutions actually solve the puzzle.
+ */
+public class ParallelIdaStarSolverTest {
+
+  private static final int THREADS = 4;
+
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void startPool() {
+    pool = new ForkJoinPool(THREADS);
+  }
+
+  @AfterClass
+  public static void stopPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void solve_solved_isEmpty() {
+    ParallelIdaStarSolver solver = new ParallelIdaStarSolver(new LinearConflict(), pool);
+    assertEquals(0, solver.solve(new PackedState(4)).length);
+  }
+
+  @Test
+  public void solve_3x3_matchesSequential() {
+    ParallelIdaStarSolver parallel = new ParallelIdaStarSolver(new LinearConflict(), pool);
+    IdaStarSolver sequential = new IdaStarSolver();
+    Random rng = new Random(23);
+    for (int i = 0; i < 100; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      check(puzzle, parallel.solve(puzzle), sequential.solve(puzzle).length);
+    }
+  }
+
+  @Test
+  public void solve_4x4_matchesSequential() {
+    ParallelIdaStarSolver parallel = new ParallelIdaStarSolver(new LinearConflict(), pool);
+    IdaStarSolver sequential = new IdaStarSolver();
+    Random rng = new Random(23);
+    for (int i = 0; i < 10; i++) {
+      Puzzle puzzle = walk(4, 60, rng);
+      check(puzzle, parallel.solve(puzzle), sequential.solve(puzzle).length);
+    }
+  }
+
+  @Test
+  public void solve_zeroMeasure_growsPath() {
+    // The search goes deeper than the initial bound of 0.
+    Measure zero = new BaseMeasure() {
+      @Override
+      public int getMeasure(Arrangement arrangement) {
+        return 0;
+      }
+    };
+    ParallelIdaStarSolver solver = new ParallelIdaStarSolver(zero, pool);
+    Puzzle puzzle = new Puzzle(new PackedState(3, new int[]{1, 2, 5, 0, 4, 8, 3, 6, 7}));
+    check(puzzle, solver.solve(puzzle), new IdaStarSolver(zero).solve(puzzle).length);
+  }
+
+  @Test
+  public void solve_inadmissibleMeasure_solvesPuzzle() {
+    ManhattanDistance manhattan = new ManhattanDistance();
+    ParallelIdaStarSolver solver = new ParallelIdaStarSolver(new BaseMeasure() {
+      @Override
+      public int getMeasure(Arrangement arrangement) {
+        return 3 * manhattan.getMeasure(arrangement);
+      }
+    }, pool);
+    Random rng = new Random(23);
+    for (int i = 0; i < 100; i++) {
+      Puzzle puzzle = new Puzzle(3, rng);
+      int[] solution = solver.solve(puzzle);
+      check(puzzle, solution, solution.length);
+    }
+  }
+
+  private static void check(Puzzle puzzle, int[] solution, int optimal) {
+    assertEquals(optimal, solution.length);
+    Puzzle replay = new Puzzle(puzzle, false);
+    for (int move : solution) {
+      assertTrue(replay.apply(move));
+    }
+    assertTrue(replay.isSolved());
+  }
+
+  private static Puzzle walk(int size, int steps, Random rng) {
+    Puzzle puzzle = new Puzzle(new PackedState(size));
+    int[] positions = new int[4];
+    int previous = -1;
+    for (int step = 0; step < steps; step++) {
+      int blank = puzzle.getBlankPosition();
+      int count = puzzle.getLegalMoves(positions);
+      int from;
+      do {
+        from = positions[rng.nextInt(count)];
+      } while (from == previous);
+      puzzle.apply(Move.pack(from, blank));
+      previous = blank;
+    }
+    return puzzle;
+  }
+
+}